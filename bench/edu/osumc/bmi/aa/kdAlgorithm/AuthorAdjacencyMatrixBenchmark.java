@@ -0,0 +1,77 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the intersection of the collaborator sets of two OSU authors,
+ * which the clustering of AuthorAdjacencyMatrixCreator does for every pair
+ * of OSU authors in every round. The collaborators of an OSU author are
+ * drawn from a shared pool, so the sets overlap the way the collaborators
+ * of related authors do
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthorAdjacencyMatrixBenchmark {
+
+	private static final int OSU_AUTHOR_COUNT = 64;
+	private static final long SEED = 42L;
+
+	@Param({ "100", "1000", "10000" })
+	public int collaboratorCount;
+
+	/**
+	 * The size of the pool the collaborators are drawn from, as a multiple
+	 * of the number of collaborators of an author
+	 */
+	@Param({ "2", "10" })
+	public int poolFactor;
+
+	private AuthorAdjacencyMatrixCreator creator;
+	private List<String> osuAuthors;
+	private int nextPair = 0;
+
+	@Setup
+	public void setUp() {
+		Logger.getRootLogger().setLevel(Level.WARN);
+		Random random = new Random(SEED);
+		int poolSize = collaboratorCount * poolFactor;
+		Map<String, Set<String>> collaborations = new HashMap<String, Set<String>>();
+		osuAuthors = new ArrayList<String>();
+		for (int author = 0; author < OSU_AUTHOR_COUNT; author++) {
+			Set<String> collaborators = new HashSet<String>();
+			while (collaborators.size() < collaboratorCount) {
+				collaborators.add("P" + random.nextInt(poolSize));
+			}
+			osuAuthors.add("GRT" + author);
+			collaborations.put("GRT" + author, collaborators);
+		}
+		creator = new AuthorAdjacencyMatrixCreator(collaborations);
+	}
+
+	@Benchmark
+	public Set<String> findCommonAuthors() {
+		int author1 = nextPair % OSU_AUTHOR_COUNT;
+		int author2 = (author1 + 1 + nextPair / OSU_AUTHOR_COUNT % (OSU_AUTHOR_COUNT - 1)) % OSU_AUTHOR_COUNT;
+		nextPair = (nextPair + 1) % (OSU_AUTHOR_COUNT * (OSU_AUTHOR_COUNT - 1));
+		return creator.findCommonAuthors(osuAuthors.get(author1), osuAuthors.get(author2));
+	}
+}
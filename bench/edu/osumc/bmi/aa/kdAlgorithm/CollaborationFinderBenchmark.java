@@ -0,0 +1,62 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.osumc.bmi.aa.dataPipeline.SyntheticDatasetGenerator;
+
+/**
+ * Measures the pairing of the authors of every keyword by
+ * CollaborationFinder. The number of pairs grows with the square of the
+ * keyword degrees, so the skew matters as much as the size, and the hub
+ * policies are measured against leaving the hubs alone
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CollaborationFinderBenchmark {
+
+	private static final double KEYWORDS_PER_AUTHOR = 6.0;
+	private static final double OSU_AUTHOR_FRACTION = 0.05;
+	private static final long SEED = 42L;
+
+	@Param({ "1000", "10000" })
+	public int authorCount;
+
+	@Param({ "0.8", "1.2" })
+	public double skew;
+
+	@Param({ "none", "cap:100", "sample:100" })
+	public String hubPolicy;
+
+	private Map<String, Set<String>> k2aMap;
+
+	@Setup
+	public void setUp() {
+		Logger.getRootLogger().setLevel(Level.WARN);
+		SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(authorCount, authorCount / 2,
+				KEYWORDS_PER_AUTHOR, skew, OSU_AUTHOR_FRACTION, SEED);
+		generator.generate();
+		k2aMap = generator.getKeyword2AuthorsMap();
+	}
+
+	@Benchmark
+	public CollaborationFinder generatePossibleCollaborations() {
+		CollaborationFinder cf = new CollaborationFinder(k2aMap);
+		cf.setHubPolicy(KeywordHubPolicy.parse(hubPolicy));
+		cf.generatePossibleCollaborations();
+		return cf;
+	}
+}
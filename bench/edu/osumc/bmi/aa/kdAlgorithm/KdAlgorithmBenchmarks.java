@@ -0,0 +1,42 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the kdAlgorithm benchmarks and writes the results as JSON, so runs
+ * can be compared from one change to the next.
+ *
+ * The benchmarks live in their own source root, bench/, next to src/, and
+ * need JMH and its annotation processor on the classpath when they are
+ * compiled. Usage: KdAlgorithmBenchmarks [results file] [benchmark regex]
+ */
+public class KdAlgorithmBenchmarks {
+
+	private static final String DEFAULT_RESULT_FILE = "bench-results.json";
+	private static final String DEFAULT_INCLUDE = KdAlgorithmBenchmarks.class.getPackage().getName() + ".*Benchmark";
+	private static final int FORKS = 1;
+	private static final int WARMUP_ITERATIONS = 3;
+	private static final int MEASUREMENT_ITERATIONS = 5;
+	private static final long ITERATION_SECONDS = 2;
+
+	public static void main(String[] args) throws RunnerException {
+		String resultFile = args.length > 0 ? args[0] : DEFAULT_RESULT_FILE;
+		String include = args.length > 1 ? args[1] : DEFAULT_INCLUDE;
+		Options options = new OptionsBuilder()
+				.include(include)
+				.forks(FORKS)
+				.warmupIterations(WARMUP_ITERATIONS)
+				.warmupTime(TimeValue.seconds(ITERATION_SECONDS))
+				.measurementIterations(MEASUREMENT_ITERATIONS)
+				.measurementTime(TimeValue.seconds(ITERATION_SECONDS))
+				.resultFormat(ResultFormatType.JSON)
+				.result(resultFile)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,60 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.osumc.bmi.aa.loc.LocHierarchy;
+
+/**
+ * Measures the semantic distance between two LOC headings, looked up by
+ * walking the hierarchies every time against looked up in the distance
+ * matrix PathFinder computes once up front
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocHierarchyBenchmark {
+
+	private LocHierarchy loch;
+	private List<String> headings;
+	private int[][] distances;
+	private int nextPair = 0;
+
+	@Setup
+	public void setUp() {
+		Logger.getRootLogger().setLevel(Level.WARN);
+		loch = new LocHierarchy(new HashMap<String, Integer>());
+		headings = loch.listHeadings();
+		distances = loch.computeSemanticDistanceMatrix(headings);
+	}
+
+	private int nextPair() {
+		int pair = nextPair;
+		nextPair = (nextPair + 1) % (headings.size() * headings.size());
+		return pair;
+	}
+
+	@Benchmark
+	public int computeSemanticDistanceBetweenHeadings() {
+		int pair = nextPair();
+		return loch.computeSemanticDistanceBetweenHeadings(headings.get(pair / headings.size()),
+				headings.get(pair % headings.size()));
+	}
+
+	@Benchmark
+	public int lookUpSemanticDistance() {
+		int pair = nextPair();
+		return distances[pair / headings.size()][pair % headings.size()];
+	}
+}
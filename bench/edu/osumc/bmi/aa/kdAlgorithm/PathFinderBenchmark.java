@@ -0,0 +1,130 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import edu.osumc.bmi.aa.dataPipeline.SyntheticDatasetGenerator;
+
+/**
+ * Measures the depth first search of PathFinder for one root author, with
+ * the paths thrown away, over synthetic graphs of several sizes and keyword
+ * degree skews. The root is fixed for a trial, so every invocation does the
+ * same work and the time per author is not swamped by the spread between
+ * authors. The expansion rate is measured by a benchmark of its own, which
+ * reports the expanded paths per second. The hubs are always capped, at two
+ * fan-outs, as a run over a skewed graph would cap them. The path weightage
+ * threshold grows with the degrees of separation, as it does in real runs.
+ * The dataset of a trial is written to a temporary directory that is
+ * deleted when the trial is over
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PathFinderBenchmark {
+
+	private static final double KEYWORDS_PER_AUTHOR = 4.0;
+	private static final int AUTHORS_PER_KEYWORD = 5;
+	private static final double OSU_AUTHOR_FRACTION = 0.05;
+	private static final double KEYWORD_WEIGHTAGE_THRESHOLD = 1.25;
+	private static final double PATH_WEIGHTAGE_THRESHOLD_PER_HOP = 7.0;
+	private static final long SEED = 42L;
+
+	@Param({ "1000", "10000" })
+	public int authorCount;
+
+	@Param({ "0.8", "1.2" })
+	public double skew;
+
+	@Param({ "false", "true" })
+	public boolean divergent;
+
+	@Param({ "2", "3" })
+	public int degreesOfSeparation;
+
+	@Param({ "cap:20", "cap:100" })
+	public String hubPolicy;
+
+	/**
+	 * The OSU author whose paths are expanded, by its position among the OSU authors
+	 */
+	@Param({ "0" })
+	public int rootIndex;
+
+	private PathFinder pathFinder;
+	private File dataDir;
+	private String root;
+
+	/**
+	 * The paths expanded by the measured searches. As operations, they are
+	 * reported as a rate by the throughput benchmark
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Expansions {
+		public long expandedPaths;
+	}
+
+	@Setup
+	public void setUp() throws Exception {
+		Logger.getRootLogger().setLevel(Level.WARN);
+		SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(authorCount,
+				authorCount / AUTHORS_PER_KEYWORD, KEYWORDS_PER_AUTHOR, skew, OSU_AUTHOR_FRACTION, SEED);
+		generator.generate();
+		dataDir = File.createTempFile("kdAlgorithm-bench", "");
+		dataDir.delete();
+		String dataDirLoc = dataDir.getPath() + File.separator;
+		generator.writeFiles(dataDirLoc);
+		pathFinder = new PathFinder(divergent, dataDirLoc);
+		List<PathConfiguration> configurations = new ArrayList<PathConfiguration>();
+		configurations.add(new PathConfiguration(KEYWORD_WEIGHTAGE_THRESHOLD,
+				PATH_WEIGHTAGE_THRESHOLD_PER_HOP * degreesOfSeparation, degreesOfSeparation));
+		pathFinder.setPathConfigurations(configurations);
+		pathFinder.setHubPolicy(KeywordHubPolicy.parse(hubPolicy));
+		List<String> roots = generator.getOsuAuthors();
+		root = roots.get(rootIndex % roots.size());
+	}
+
+	@TearDown
+	public void tearDown() {
+		delete(dataDir);
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	@Benchmark
+	public long expandPathsOfOneAuthor() {
+		return pathFinder.countExpandedPathsForAuthor(root);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public long expansionRate(Expansions expansions) {
+		long expandedPaths = pathFinder.countExpandedPathsForAuthor(root);
+		expansions.expandedPaths += expandedPaths;
+		return expandedPaths;
+	}
+}
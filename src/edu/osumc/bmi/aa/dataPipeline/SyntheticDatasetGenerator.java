@@ -0,0 +1,427 @@
+package edu.osumc.bmi.aa.dataPipeline;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import edu.osumc.bmi.aa.loc.LocHierarchy;
+import edu.osumc.bmi.aa.util.AcaAnaLogger;
+
+/**
+ * This class generates a synthetic author-keyword dataset in the format of
+ * the files written by AuthorKeywordDataProcessor and LocHierarchy, so the
+ * algorithms can be run, benchmarked and load tested without the data we
+ * cannot share. The same seed always generates the same dataset.
+ *
+ * The popularity of the keywords follows a power law: the keyword of rank r
+ * is drawn with a probability proportional to 1/r^skew, so a few keywords end
+ * up with a great many authors and most with a handful. Every keyword is
+ * assigned a heading of the LOC hierarchies, and every author has a home
+ * hierarchy it draws most of its keywords from, the way researchers stay in
+ * their field. The number of keywords of an author is geometric, at least 2,
+ * since the input files drop an author with a single keyword. The first
+ * authors are OSU (GRT) authors and the others are not.
+ *
+ * The edges are held in primitive arrays, both ways, so the generator scales
+ * to tens of millions of edges
+ */
+public class SyntheticDatasetGenerator {
+
+	public static Logger log = Logger.getLogger(SyntheticDatasetGenerator.class);
+
+	public static final String OUTPUT_KEYWORDS_FILE = "KeywordsToAuthors.csv";
+	public static final String OUTPUT_AUTHORS_FILE = "AuthorsToKeywords.csv";
+	public static final String OUTPUT_ANNOTATIONS_FILE = "KeywordAnnotations.csv";
+
+	private static final String OSU_AUTHOR_PREFIX = "GRT";
+	private static final String AUTHOR_PREFIX = "P";
+	private static final String KEYWORD_PREFIX = "kw";
+	private static final char COMMA = ',';
+	private static final char SEMICOLON = ';';
+
+	private static final int MIN_KEYWORDS_PER_AUTHOR = 2;
+	private static final int MAX_KEYWORDS_PER_AUTHOR = 500;
+	private static final double HOME_HIERARCHY_AFFINITY = 0.7;
+	private static final int MAX_DRAWS_PER_KEYWORD = 100;
+	private static final int WRITER_BUFFER_SIZE = 1 << 20;
+	private static final double WEIGHT_SCALE = 1000.0;
+
+	private int authorCount;
+	private int keywordCount;
+	private double keywordsPerAuthor;
+	private double skew;
+	private int osuAuthorCount;
+	private long seed;
+
+	private LocHierarchy loch;
+
+	/**
+	 * The heading of every keyword, and the hierarchy of every heading
+	 */
+	private List<String> headings;
+	private int[] headingRootIndexes;
+	private int[] keywordHeadings;
+
+	/**
+	 * The keywords of every author and the authors of every keyword, as
+	 * offsets into one array of IDs each
+	 */
+	private int[] authorOffsets;
+	private int[] authorKeywords;
+	private int[] keywordOffsets;
+	private int[] keywordAuthors;
+
+	/**
+	 * @param authorCount
+	 * @param keywordCount
+	 * @param keywordsPerAuthor - the mean number of keywords of an author
+	 * @param skew - the exponent of the power law of keyword popularity
+	 * @param osuAuthorFraction - the fraction of the authors that are OSU authors
+	 * @param seed
+	 */
+	public SyntheticDatasetGenerator(int authorCount, int keywordCount, double keywordsPerAuthor,
+			double skew, double osuAuthorFraction, long seed) {
+		if (keywordCount < 2 * MIN_KEYWORDS_PER_AUTHOR || keywordsPerAuthor < MIN_KEYWORDS_PER_AUTHOR) {
+			throw new IllegalArgumentException("Expected at least " + 2 * MIN_KEYWORDS_PER_AUTHOR +
+					" keywords and " + MIN_KEYWORDS_PER_AUTHOR + " keywords per author");
+		}
+		this.authorCount = authorCount;
+		this.keywordCount = keywordCount;
+		this.keywordsPerAuthor = keywordsPerAuthor;
+		this.skew = skew;
+		this.osuAuthorCount = (int) Math.round(authorCount * osuAuthorFraction);
+		this.seed = seed;
+		log.setLevel(Level.INFO);
+	}
+
+	/**
+	 * This method draws the headings of the keywords and the keywords of the
+	 * authors, and indexes the authors of every keyword
+	 */
+	public void generate() {
+		Random random = new Random(seed);
+		loch = new LocHierarchy(new HashMap<String, Integer>());
+		headings = loch.listHeadings();
+		headingRootIndexes = loch.computeRootIndexes(headings);
+		int hierarchyCount = loch.getHierarchyArray().length;
+
+		keywordHeadings = new int[keywordCount];
+		for (int kw = 0; kw < keywordCount; kw++) {
+			keywordHeadings[kw] = random.nextInt(headings.size());
+		}
+		KeywordSampler globalSampler = new KeywordSampler(null);
+		KeywordSampler[] hierarchySamplers = new KeywordSampler[hierarchyCount];
+		for (int h = 0; h < hierarchyCount; h++) {
+			hierarchySamplers[h] = new KeywordSampler(h);
+		}
+
+		int[] degrees = new int[authorCount];
+		long edgeCount = 0;
+		double continueProbability = 1.0 - 1.0 / (keywordsPerAuthor - MIN_KEYWORDS_PER_AUTHOR + 1.0);
+		int maxDegree = Math.min(MAX_KEYWORDS_PER_AUTHOR, keywordCount / 2);
+		for (int author = 0; author < authorCount; author++) {
+			int degree = MIN_KEYWORDS_PER_AUTHOR;
+			while (degree < maxDegree && random.nextDouble() < continueProbability) {
+				++degree;
+			}
+			degrees[author] = degree;
+			edgeCount += degree;
+		}
+		if (edgeCount > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many edges: " + edgeCount);
+		}
+
+		authorOffsets = new int[authorCount + 1];
+		authorKeywords = new int[(int) edgeCount];
+		int[] keywordDegrees = new int[keywordCount];
+		boolean[] isDrawn = new boolean[keywordCount];
+		int edge = 0;
+		for (int author = 0; author < authorCount; author++) {
+			authorOffsets[author] = edge;
+			int home = headingRootIndexes[keywordHeadings[globalSampler.draw(random)]];
+			KeywordSampler homeSampler = globalSampler;
+			if (home >= 0 && !hierarchySamplers[home].isEmpty()) {
+				homeSampler = hierarchySamplers[home];
+			}
+			for (int i = 0; i < degrees[author]; i++) {
+				KeywordSampler sampler = random.nextDouble() < HOME_HIERARCHY_AFFINITY ? homeSampler : globalSampler;
+				int kw = sampler.draw(random);
+				for (int draws = 1; isDrawn[kw]; draws++) {
+					kw = draws < MAX_DRAWS_PER_KEYWORD ? sampler.draw(random) : random.nextInt(keywordCount);
+				}
+				isDrawn[kw] = true;
+				++keywordDegrees[kw];
+				authorKeywords[edge++] = kw;
+			}
+			for (int i = authorOffsets[author]; i < edge; i++) {
+				isDrawn[authorKeywords[i]] = false;
+			}
+			Arrays.sort(authorKeywords, authorOffsets[author], edge);
+			if ((author + 1) % 1000000 == 0) {
+				log.info("Generated the keywords of " + (author + 1) + " authors");
+			}
+		}
+		authorOffsets[authorCount] = edge;
+
+		keywordOffsets = new int[keywordCount + 1];
+		for (int kw = 0; kw < keywordCount; kw++) {
+			keywordOffsets[kw + 1] = keywordOffsets[kw] + keywordDegrees[kw];
+		}
+		keywordAuthors = new int[edge];
+		int[] next = Arrays.copyOf(keywordOffsets, keywordCount);
+		for (int author = 0; author < authorCount; author++) {
+			for (int i = authorOffsets[author]; i < authorOffsets[author + 1]; i++) {
+				keywordAuthors[next[authorKeywords[i]]++] = author;
+			}
+		}
+		loch.setKeywordUsageCounts(getKeywordUsageCounts());
+		log.info("Generated " + authorCount + " authors (" + osuAuthorCount + " OSU authors), " +
+				keywordCount + " keywords and " + edge + " edges; the most used keyword has " +
+				(keywordOffsets[1] - keywordOffsets[0]) + " authors and the median usage is " +
+				loch.getMedianUsageCount());
+	}
+
+	/**
+	 * Draws keywords by the power law, from all the keywords or from the
+	 * keywords of one hierarchy
+	 */
+	private class KeywordSampler {
+		private int[] keywords;
+		private double[] cumulativeWeights;
+
+		/**
+		 * @param hierarchy - the hierarchy index, or null for all the keywords
+		 */
+		private KeywordSampler(Integer hierarchy) {
+			int count = 0;
+			keywords = new int[keywordCount];
+			for (int kw = 0; kw < keywordCount; kw++) {
+				if (hierarchy == null || headingRootIndexes[keywordHeadings[kw]] == hierarchy) {
+					keywords[count++] = kw;
+				}
+			}
+			keywords = Arrays.copyOf(keywords, count);
+			cumulativeWeights = new double[count];
+			double total = 0.0;
+			for (int i = 0; i < count; i++) {
+				total += 1.0 / Math.pow(keywords[i] + 1, skew);
+				cumulativeWeights[i] = total;
+			}
+		}
+
+		private boolean isEmpty() {
+			return keywords.length == 0;
+		}
+
+		private int draw(Random random) {
+			double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+			int i = Arrays.binarySearch(cumulativeWeights, target);
+			i = i < 0 ? -i - 1 : i;
+			return keywords[Math.min(i, keywords.length - 1)];
+		}
+	}
+
+	/**
+	 * This method writes the dataset to the given directory as the input
+	 * files of PathFinder and CollaborationFinder
+	 * @param dataDirLoc - the directory, ending with a /
+	 */
+	public void writeFiles(String dataDirLoc) {
+		new File(dataDirLoc).mkdirs();
+		writeAdjacencyFile(dataDirLoc + OUTPUT_AUTHORS_FILE, authorOffsets, authorKeywords, true);
+		writeAdjacencyFile(dataDirLoc + OUTPUT_KEYWORDS_FILE, keywordOffsets, keywordAuthors, false);
+		writeAnnotationsFile(dataDirLoc + OUTPUT_ANNOTATIONS_FILE);
+		log.info("Finished writing the dataset to " + dataDirLoc);
+	}
+
+	/**
+	 * Writes one line for every node, its name, the number of its
+	 * neighbors and the names of its neighbors, separated by commas
+	 */
+	private void writeAdjacencyFile(String fileName, int[] offsets, int[] neighbors, boolean isAuthorFile) {
+		Writer writer = null;
+		StringBuilder line = new StringBuilder();
+		try {
+			writer = new BufferedWriter(new FileWriter(new File(fileName)), WRITER_BUFFER_SIZE);
+			for (int node = 0; node < offsets.length - 1; node++) {
+				line.setLength(0);
+				appendName(line, node, isAuthorFile);
+				line.append(COMMA).append(offsets[node + 1] - offsets[node]);
+				for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+					line.append(COMMA);
+					appendName(line, neighbors[i], !isAuthorFile);
+				}
+				line.append('\n');
+				writer.append(line);
+			}
+		} catch (IOException e) {
+			log.error("IOException: Unable to write to " + fileName);
+			e.printStackTrace();
+		} finally {
+			close(writer);
+		}
+	}
+
+	/**
+	 * Writes the weight and the path to the root of the heading of every
+	 * keyword used by more than one author, as keyword;weight;path
+	 */
+	private void writeAnnotationsFile(String fileName) {
+		String[] paths = new String[headings.size()];
+		int[] pathLengths = new int[headings.size()];
+		for (int h = 0; h < headings.size(); h++) {
+			paths[h] = loch.findPathToRoot(headings.get(h));
+			pathLengths[h] = paths[h].split(":").length;
+		}
+		Writer writer = null;
+		StringBuilder line = new StringBuilder();
+		try {
+			writer = new BufferedWriter(new FileWriter(new File(fileName)), WRITER_BUFFER_SIZE);
+			for (int kw = 0; kw < keywordCount; kw++) {
+				int usageCount = keywordOffsets[kw + 1] - keywordOffsets[kw];
+				if (usageCount <= 1) {
+					continue;
+				}
+				int heading = keywordHeadings[kw];
+				line.setLength(0);
+				appendName(line, kw, false);
+				double weight = loch.computeKeywordWeight(usageCount, pathLengths[heading]);
+				line.append(SEMICOLON).append(Math.round(weight * WEIGHT_SCALE) / WEIGHT_SCALE);
+				line.append(SEMICOLON).append(paths[heading]).append('\n');
+				writer.append(line);
+			}
+		} catch (IOException e) {
+			log.error("IOException: Unable to write to " + fileName);
+			e.printStackTrace();
+		} finally {
+			close(writer);
+		}
+	}
+
+	private void close(Writer writer) {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void appendName(StringBuilder line, int node, boolean isAuthor) {
+		if (!isAuthor) {
+			line.append(KEYWORD_PREFIX).append(node);
+		} else if (node < osuAuthorCount) {
+			line.append(OSU_AUTHOR_PREFIX).append(node);
+		} else {
+			line.append(AUTHOR_PREFIX).append(node);
+		}
+	}
+
+	private String getName(int node, boolean isAuthor) {
+		StringBuilder name = new StringBuilder();
+		appendName(name, node, isAuthor);
+		return name.toString();
+	}
+
+	/**
+	 * @return the number of authors of every keyword used by more than one
+	 * author, which is what LocHierarchy reads from the keywords file
+	 */
+	public Map<String, Integer> getKeywordUsageCounts() {
+		Map<String, Integer> usageCounts = new HashMap<String, Integer>();
+		for (int kw = 0; kw < keywordCount; kw++) {
+			int usageCount = keywordOffsets[kw + 1] - keywordOffsets[kw];
+			if (usageCount > 1) {
+				usageCounts.put(getName(kw, false), usageCount);
+			}
+		}
+		return usageCounts;
+	}
+
+	/**
+	 * @return the authors of every keyword, for datasets small enough to
+	 * hold as strings
+	 */
+	public Map<String, Set<String>> getKeyword2AuthorsMap() {
+		return toMap(keywordOffsets, keywordAuthors, false);
+	}
+
+	/**
+	 * @return the keywords of every author, for datasets small enough to
+	 * hold as strings
+	 */
+	public Map<String, Set<String>> getAuthor2KeywordsMap() {
+		return toMap(authorOffsets, authorKeywords, true);
+	}
+
+	private Map<String, Set<String>> toMap(int[] offsets, int[] neighbors, boolean isAuthorMap) {
+		Map<String, Set<String>> map = new LinkedHashMap<String, Set<String>>();
+		for (int node = 0; node < offsets.length - 1; node++) {
+			Set<String> values = new LinkedHashSet<String>();
+			for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+				values.add(getName(neighbors[i], !isAuthorMap));
+			}
+			map.put(getName(node, isAuthorMap), values);
+		}
+		return map;
+	}
+
+	/**
+	 * @return the names of the OSU authors
+	 */
+	public List<String> getOsuAuthors() {
+		List<String> osuAuthors = new ArrayList<String>(osuAuthorCount);
+		for (int author = 0; author < osuAuthorCount; author++) {
+			osuAuthors.add(getName(author, true));
+		}
+		return osuAuthors;
+	}
+
+	/** GETTER **/
+	public int getEdgeCount() {
+		return authorOffsets[authorCount];
+	}
+
+	/**
+	 * Usage: SyntheticDatasetGenerator outputDir authorCount keywordCount
+	 * keywordsPerAuthor skew osuAuthorFraction seed, every argument after
+	 * the directory optional, for example
+	 * SyntheticDatasetGenerator data/synthetic/ 1000000 200000 8 1.0 0.05 42
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		AcaAnaLogger.initLogger();
+		String dataDirLoc = args.length > 0 ? args[0] : "data/synthetic/";
+		if (!dataDirLoc.endsWith("/")) {
+			dataDirLoc += "/";
+		}
+		int authorCount = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int keywordCount = args.length > 2 ? Integer.parseInt(args[2]) : authorCount / 5;
+		double keywordsPerAuthor = args.length > 3 ? Double.parseDouble(args[3]) : 8.0;
+		double skew = args.length > 4 ? Double.parseDouble(args[4]) : 1.0;
+		double osuAuthorFraction = args.length > 5 ? Double.parseDouble(args[5]) : 0.05;
+		long seed = args.length > 6 ? Long.parseLong(args[6]) : 0L;
+
+		long startTime = System.currentTimeMillis();
+		SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(authorCount, keywordCount,
+				keywordsPerAuthor, skew, osuAuthorFraction, seed);
+		generator.generate();
+		generator.writeFiles(dataDirLoc);
+		log.info("Generated the dataset in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+}
@@ -0,0 +1,371 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Takes the writing of path files off the search threads.
+ *
+ * The search threads copy their encoded paths into the slots of a bounded
+ * ring buffer and go straight back to searching. A single writer thread
+ * takes every filled slot at once, appends the records to a direct
+ * ByteBuffer per open file and hands each buffer to its FileChannel when it
+ * fills up. A search thread that finds the ring full waits for the writer
+ * to catch up, so a slow disk slows the search down instead of filling the
+ * heap. The slots and the buffers are allocated once and reused.
+ *
+ * Closing a sink goes through the ring like any record, so it happens after
+ * everything written to the sink, and returns once the file is complete.
+ *
+ * If the writer thread fails, the failure is kept, every thread waiting on
+ * the writer is woken up, and write, close and shutdown throw it on in an
+ * IllegalStateException instead of waiting for a thread that is gone.
+ * A file that cannot be written or closed, as on a full disk, fails the
+ * writer thread the same way, so a sink never closes over a truncated file.
+ */
+public class AsyncPathWriter {
+
+	public static Logger log = Logger.getLogger(AsyncPathWriter.class);
+
+	private static final int RECORD = 0;
+	private static final int CLOSE = 1;
+	private static final int STOP = 2;
+
+	private static final int INITIAL_SLOT_BYTES = 256;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	/**
+	 * The ring buffer. Slots [head, head + count) are waiting to be written,
+	 * and the writer thread only frees them once it is done with them
+	 */
+	private int[] slotTypes;
+	private FileSink[] slotSinks;
+	private byte[][] slotBytes;
+	private int[] slotLengths;
+	private int head = 0;
+	private int count = 0;
+
+	private int bufferBytes;
+	private Deque<ByteBuffer> freeBuffers = new ArrayDeque<ByteBuffer>();
+	private Set<FileSink> openSinks = Collections.synchronizedSet(new HashSet<FileSink>());
+	private Thread writerThread;
+	private volatile Throwable failure = null;
+
+	private long recordsWritten = 0;
+	private long bytesWritten = 0;
+	private long batchesWritten = 0;
+	private long producerStalls = 0;
+	private long startTime;
+
+	/**
+	 * @param slotCount - how many records can be waiting to be written
+	 * @param bufferBytes - the size of the direct buffer of every open file
+	 */
+	public AsyncPathWriter(int slotCount, int bufferBytes) {
+		this.bufferBytes = bufferBytes;
+		slotTypes = new int[slotCount];
+		slotSinks = new FileSink[slotCount];
+		slotBytes = new byte[slotCount][];
+		slotLengths = new int[slotCount];
+		for (int i = 0; i < slotCount; i++) {
+			slotBytes[i] = new byte[INITIAL_SLOT_BYTES];
+		}
+		writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					writeRecords();
+				} catch (Throwable t) {
+					log.error("The path writer thread failed");
+					t.printStackTrace();
+					fail(t);
+				}
+			}
+		}, "path-writer");
+		writerThread.setDaemon(true);
+		startTime = System.nanoTime();
+		writerThread.start();
+	}
+
+	/**
+	 * Opens a sink that writes to the given file, replacing its contents
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public PathSink open(File file) throws IOException {
+		checkFailure();
+		FileSink sink = new FileSink(new FileOutputStream(file).getChannel());
+		openSinks.add(sink);
+		return sink;
+	}
+
+	/**
+	 * Writes out everything in the ring, stops the writer thread and logs
+	 * the throughput. Every sink should have been closed by now
+	 */
+	public void shutdown() {
+		enqueue(STOP, null, null, 0);
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			e.printStackTrace();
+		}
+		checkFailure();
+		double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+		log.info("Wrote " + recordsWritten + " paths (" + (bytesWritten >> 20) + " MB) in " + batchesWritten +
+				" batches at " + String.format("%.1f", bytesWritten / seconds / (1 << 20)) + " MB/s; the ring was full " +
+				producerStalls + " times");
+	}
+
+	/** GETTER **/
+	public long getRecordsWritten() {
+		lock.lock();
+		try {
+			return recordsWritten;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** GETTER **/
+	public long getBytesWritten() {
+		lock.lock();
+		try {
+			return bytesWritten;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Keeps the failure of the writer thread and wakes up every thread
+	 * waiting on it: the producers waiting for a free slot and the
+	 * threads waiting for a sink to close
+	 * @param t
+	 */
+	private void fail(Throwable t) {
+		lock.lock();
+		try {
+			failure = t;
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		FileSink[] sinks;
+		synchronized (openSinks) {
+			sinks = openSinks.toArray(new FileSink[openSinks.size()]);
+		}
+		for (FileSink sink : sinks) {
+			synchronized (sink) {
+				sink.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Throws the failure of the writer thread, if it failed
+	 */
+	private void checkFailure() {
+		if (failure != null) {
+			throw new IllegalStateException("The path writer thread failed", failure);
+		}
+	}
+
+	/**
+	 * Copies a record into the next free slot, waiting for one if the ring is full
+	 */
+	private void enqueue(int type, FileSink sink, byte[] bytes, int length) {
+		lock.lock();
+		try {
+			checkFailure();
+			if (count == slotTypes.length) {
+				++producerStalls;
+				while (count == slotTypes.length && failure == null) {
+					notFull.awaitUninterruptibly();
+				}
+				checkFailure();
+			}
+			int slot = (head + count) % slotTypes.length;
+			slotTypes[slot] = type;
+			slotSinks[slot] = sink;
+			if (length > slotBytes[slot].length) {
+				slotBytes[slot] = new byte[Math.max(length, 2 * slotBytes[slot].length)];
+			}
+			if (length > 0) {
+				System.arraycopy(bytes, 0, slotBytes[slot], 0, length);
+			}
+			slotLengths[slot] = length;
+			if (count++ == 0) {
+				notEmpty.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The loop of the writer thread. Every filled slot is taken as one batch,
+	 * written outside the lock, and only then handed back to the producers
+	 */
+	private void writeRecords() {
+		boolean stopped = false;
+		while (!stopped) {
+			int batchHead;
+			int batchCount;
+			lock.lock();
+			try {
+				while (count == 0) {
+					notEmpty.awaitUninterruptibly();
+				}
+				batchHead = head;
+				batchCount = count;
+			} finally {
+				lock.unlock();
+			}
+
+			long batchRecords = 0;
+			long batchBytes = 0;
+			for (int i = 0; i < batchCount; i++) {
+				int slot = (batchHead + i) % slotTypes.length;
+				FileSink sink = slotSinks[slot];
+				if (slotTypes[slot] == RECORD) {
+					sink.append(slotBytes[slot], slotLengths[slot]);
+					++batchRecords;
+					batchBytes += slotLengths[slot];
+				} else if (slotTypes[slot] == CLOSE) {
+					sink.finish();
+				} else {
+					stopped = true;
+				}
+				slotSinks[slot] = null;
+			}
+
+			lock.lock();
+			try {
+				head = (batchHead + batchCount) % slotTypes.length;
+				count -= batchCount;
+				recordsWritten += batchRecords;
+				bytesWritten += batchBytes;
+				++batchesWritten;
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private ByteBuffer takeBuffer() {
+		ByteBuffer buffer = freeBuffers.poll();
+		return buffer == null ? ByteBuffer.allocateDirect(bufferBytes) : buffer;
+	}
+
+	/**
+	 * A sink for one file. Writes are queued on the ring by the search
+	 * thread; the buffer and the channel are only touched by the writer thread
+	 */
+	private class FileSink implements PathSink {
+		private FileChannel channel;
+		private ByteBuffer buffer = null;
+		private boolean closed = false;
+
+		private FileSink(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(byte[] bytes, int length) {
+			enqueue(RECORD, this, bytes, length);
+		}
+
+		@Override
+		public void close() {
+			enqueue(CLOSE, this, null, 0);
+			synchronized (this) {
+				while (!closed && failure == null) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						e.printStackTrace();
+						return;
+					}
+				}
+			}
+			checkFailure();
+		}
+
+		private void append(byte[] bytes, int length) {
+			if (buffer == null) {
+				buffer = takeBuffer();
+			}
+			if (length > buffer.remaining()) {
+				flush();
+			}
+			if (length > buffer.capacity()) {
+				writeFully(ByteBuffer.wrap(bytes, 0, length));
+			} else {
+				buffer.put(bytes, 0, length);
+			}
+		}
+
+		private void flush() {
+			buffer.flip();
+			writeFully(buffer);
+			buffer.clear();
+		}
+
+		/**
+		 * Writes the whole buffer to the channel. A failed write is thrown
+		 * on, so that it fails the writer thread instead of leaving a
+		 * truncated file behind a sink that closes normally
+		 * @param source
+		 */
+		private void writeFully(ByteBuffer source) {
+			try {
+				while (source.hasRemaining()) {
+					channel.write(source);
+				}
+			} catch (IOException e) {
+				log.error("IOException: Problems writing paths to file");
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void finish() {
+			if (buffer != null) {
+				flush();
+				freeBuffers.push(buffer);
+				buffer = null;
+			}
+			try {
+				channel.close();
+			} catch (IOException e) {
+				log.error("IOException: Problems closing a paths file");
+				throw new UncheckedIOException(e);
+			}
+			openSinks.remove(this);
+			synchronized (this) {
+				closed = true;
+				notifyAll();
+			}
+		}
+	}
+}
@@ -59,7 +59,18 @@ public class AuthorAdjacencyMatrixCreator {
 		log.setLevel(Level.DEBUG);
 		
 		String[][] author2dArray = readCSVFileIntoMatrix(INPUT_COLLAB_FILE);
-		inputCollaborations = transformKeywordArrayToHashMap(author2dArray);
+		initialize(transformKeywordArrayToHashMap(author2dArray));
+	}
+	
+	/**
+	 * @param inputCollaborations - the collaborating authors of every OSU author
+	 */
+	public AuthorAdjacencyMatrixCreator(Map<String, Set<String>> inputCollaborations){
+		initialize(inputCollaborations);
+	}
+	
+	private void initialize(Map<String, Set<String>> inputCollaborations){
+		this.inputCollaborations = inputCollaborations;
 		listOfCountOfCommonAuthors = new ArrayList<Integer>();
 		setOfAuthorsFinishedWith = new HashSet<String>();
 		largestSetOfCommonAuthors = new HashSet<String>();
@@ -184,7 +195,7 @@ public class AuthorAdjacencyMatrixCreator {
 	 * @param author2
 	 * @return
 	 */
-	private Set<String> findCommonAuthors(String author1, String author2) {
+	Set<String> findCommonAuthors(String author1, String author2) {
 		Set<String> commonAuthors = new TreeSet<String>();
 		Set<String> collabsForAuthor1 = inputCollaborations.get(author1);
 		Set<String> collabsForAuthor2 = inputCollaborations.get(author2);
@@ -0,0 +1,213 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A compact, read-only representation of the bipartite graph of authors
+ * and keywords that the path finding algorithms traverse.
+ *
+ * Every author and keyword is interned to an int ID. Authors occupy the
+ * IDs [0, authorCount) and keywords occupy [authorCount, nodeCount), so a
+ * single ID space covers both sides of the graph. The adjacency lists are
+ * stored in compressed sparse row (CSR) form: the neighbors of node n are
+ * neighbors[offsets[n]] ... neighbors[offsets[n + 1] - 1]. Author nodes
+ * point to keyword IDs and keyword nodes point to author IDs.
+ *
+ * Names are only needed to build the graph and to print results, so the
+ * traversal itself never hashes or compares a String.
+ */
+public class AuthorKeywordGraph {
+
+	private static final int NOT_FOUND = -1;
+
+	private int authorCount;
+	private int keywordCount;
+
+	private String[] names;
+	private Map<String, Integer> authorIds;
+	private Map<String, Integer> keywordIds;
+
+	private int[] offsets;
+	private int[] neighbors;
+
+	/**
+	 * Builds the graph from the author-to-keywords and keyword-to-authors maps.
+	 * Authors are numbered in the iteration order of a2kMap and keywords in the
+	 * iteration order of k2aMap; names that only show up on the value side of a
+	 * map are appended after them with no neighbors of their own. The order of
+	 * every adjacency list is the iteration order of the corresponding value
+	 * collection.
+	 * @param a2kMap
+	 * @param k2aMap
+	 */
+	public AuthorKeywordGraph(Map<String, ? extends Collection<String>> a2kMap,
+			Map<String, ? extends Collection<String>> k2aMap) {
+		authorIds = new HashMap<String, Integer>();
+		keywordIds = new HashMap<String, Integer>();
+
+		for (String author : a2kMap.keySet()) {
+			intern(authorIds, author);
+		}
+		for (Collection<String> authors : k2aMap.values()) {
+			for (String author : authors) {
+				intern(authorIds, author);
+			}
+		}
+		for (String keyword : k2aMap.keySet()) {
+			intern(keywordIds, keyword);
+		}
+		for (Collection<String> keywords : a2kMap.values()) {
+			for (String keyword : keywords) {
+				intern(keywordIds, keyword);
+			}
+		}
+
+		authorCount = authorIds.size();
+		keywordCount = keywordIds.size();
+		int nodeCount = authorCount + keywordCount;
+
+		names = new String[nodeCount];
+		for (Entry<String, Integer> entry : authorIds.entrySet()) {
+			names[entry.getValue()] = entry.getKey();
+		}
+		for (Entry<String, Integer> entry : keywordIds.entrySet()) {
+			names[authorCount + entry.getValue()] = entry.getKey();
+		}
+
+		int[] degrees = new int[nodeCount];
+		int edgeCount = 0;
+		for (Entry<String, ? extends Collection<String>> entry : a2kMap.entrySet()) {
+			degrees[authorIds.get(entry.getKey())] = entry.getValue().size();
+			edgeCount += entry.getValue().size();
+		}
+		for (Entry<String, ? extends Collection<String>> entry : k2aMap.entrySet()) {
+			degrees[authorCount + keywordIds.get(entry.getKey())] = entry.getValue().size();
+			edgeCount += entry.getValue().size();
+		}
+
+		offsets = new int[nodeCount + 1];
+		for (int node = 0; node < nodeCount; node++) {
+			offsets[node + 1] = offsets[node] + degrees[node];
+		}
+
+		neighbors = new int[edgeCount];
+		for (Entry<String, ? extends Collection<String>> entry : a2kMap.entrySet()) {
+			int position = offsets[authorIds.get(entry.getKey())];
+			for (String keyword : entry.getValue()) {
+				neighbors[position++] = authorCount + keywordIds.get(keyword);
+			}
+		}
+		for (Entry<String, ? extends Collection<String>> entry : k2aMap.entrySet()) {
+			int position = offsets[authorCount + keywordIds.get(entry.getKey())];
+			for (String author : entry.getValue()) {
+				neighbors[position++] = authorIds.get(author);
+			}
+		}
+	}
+
+	/**
+	 * Builds a graph with the nodes of another graph but different edges,
+	 * for policies that drop edges without renumbering any node
+	 * @param graph
+	 * @param offsets
+	 * @param neighbors
+	 */
+	AuthorKeywordGraph(AuthorKeywordGraph graph, int[] offsets, int[] neighbors) {
+		authorCount = graph.authorCount;
+		keywordCount = graph.keywordCount;
+		names = graph.names;
+		authorIds = graph.authorIds;
+		keywordIds = graph.keywordIds;
+		this.offsets = offsets;
+		this.neighbors = neighbors;
+	}
+
+	/**
+	 * Assigns the next free ID to the name if it has not been seen before
+	 * @param ids
+	 * @param name
+	 */
+	private void intern(Map<String, Integer> ids, String name) {
+		if (!ids.containsKey(name)) {
+			ids.put(name, ids.size());
+		}
+	}
+
+	/** GETTER **/
+	public int getAuthorCount() {
+		return authorCount;
+	}
+
+	/** GETTER **/
+	public int getKeywordCount() {
+		return keywordCount;
+	}
+
+	public int getNodeCount() {
+		return names.length;
+	}
+
+	public int getEdgeCount() {
+		return neighbors.length;
+	}
+
+	public boolean isAuthor(int node) {
+		return node < authorCount;
+	}
+
+	public boolean isKeyword(int node) {
+		return node >= authorCount;
+	}
+
+	/**
+	 * Resolves a node ID back to the author or keyword it was interned from
+	 * @param node
+	 * @return
+	 */
+	public String getName(int node) {
+		return names[node];
+	}
+
+	/**
+	 * @param author
+	 * @return the node ID of the author, or -1 if the author is not in the graph
+	 */
+	public int getAuthorId(String author) {
+		Integer id = authorIds.get(author);
+		return id == null ? NOT_FOUND : id;
+	}
+
+	/**
+	 * @param keyword
+	 * @return the node ID of the keyword, or -1 if the keyword is not in the graph
+	 */
+	public int getKeywordId(String keyword) {
+		Integer id = keywordIds.get(keyword);
+		return id == null ? NOT_FOUND : authorCount + id;
+	}
+
+	public int getDegree(int node) {
+		return offsets[node + 1] - offsets[node];
+	}
+
+	/**
+	 * The CSR offsets array. Exposed for tight traversal loops and
+	 * must not be modified.
+	 * @return
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * The CSR neighbors array. Exposed for tight traversal loops and
+	 * must not be modified.
+	 * @return
+	 */
+	public int[] getNeighbors() {
+		return neighbors;
+	}
+}
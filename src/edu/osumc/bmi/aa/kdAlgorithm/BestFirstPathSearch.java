@@ -0,0 +1,338 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the best N paths of one author without enumerating all of them.
+ *
+ * Partial paths are expanded best first, in the order of their metric plus
+ * the most the remaining hops could add to it (maxMetricPerHop a hop). That
+ * bound never underestimates, so a complete path taken off the queue is at
+ * least as good as anything still on it, and the search stops once N
+ * complete paths are out and nothing left on the queue can beat the worst
+ * of them. The paths are the ones PathFinder would write, following the same
+ * keyword, author, divergence and threshold rules, and ties are broken by
+ * node IDs like TopPathHeap does, so the result is the top N of PathFinder.
+ *
+ * The partial paths live in an arena of parallel arrays: every entry holds
+ * the keyword and author of its last hop and the index of the entry it
+ * extends, so a path is stored as one hop on top of a shared prefix. The
+ * priority queue is a binary heap of entry indexes. The arena and the queue
+ * are kept from one search to the next, and a search that needs more than
+ * maxEntryCount entries, as a search from a hub author can, fails with an
+ * IllegalStateException rather than filling the heap.
+ */
+public class BestFirstPathSearch {
+
+	private static final String COMMA = ",";
+	private static final int NO_PARENT = -1;
+	private static final int INITIAL_ENTRY_CAPACITY = 256;
+
+	/**
+	 * 4M entries, about 160 MB of arena and queue
+	 */
+	public static final int DEFAULT_MAX_ENTRY_COUNT = 4 * 1024 * 1024;
+
+	private AuthorKeywordGraph graph;
+	private boolean[] authorIsExtensible;
+	private boolean[] keywordIsUsable;
+	private double[] keywordWeights;
+	private int[] keywordHeadingIds;
+	private int[][] headingDistances;
+	private int[] keywordHierarchyMasks;
+	private int[] keywordConflictMasks;
+	private double maxMetricPerHop;
+	private int maxEntryCount = DEFAULT_MAX_ENTRY_COUNT;
+
+	/**
+	 * The arena of partial paths
+	 */
+	private int entryCount;
+	private int[] entryKeywords = new int[INITIAL_ENTRY_CAPACITY];
+	private int[] entryAuthors = new int[INITIAL_ENTRY_CAPACITY];
+	private int[] entryParents = new int[INITIAL_ENTRY_CAPACITY];
+	private int[] entryDepths = new int[INITIAL_ENTRY_CAPACITY];
+	private int[] entryHierarchies = new int[INITIAL_ENTRY_CAPACITY];
+	private double[] entryMetrics = new double[INITIAL_ENTRY_CAPACITY];
+	private double[] entryPriorities = new double[INITIAL_ENTRY_CAPACITY];
+
+	/**
+	 * The priority queue, a max-heap of entry indexes
+	 */
+	private int[] queue = new int[INITIAL_ENTRY_CAPACITY];
+	private int queueSize;
+
+	private long expandedEntryCount = 0;
+
+	/**
+	 * @param graph
+	 * @param authorIsExtensible
+	 * @param keywordIsUsable
+	 * @param keywordWeights
+	 * @param keywordHeadingIds
+	 * @param headingDistances
+	 * @param keywordHierarchyMasks - null unless the search is divergent
+	 * @param keywordConflictMasks - null unless the search is divergent
+	 * @param maxMetricPerHop - the most a hop can add to the metric of a path
+	 */
+	public BestFirstPathSearch(AuthorKeywordGraph graph, boolean[] authorIsExtensible,
+			boolean[] keywordIsUsable, double[] keywordWeights, int[] keywordHeadingIds,
+			int[][] headingDistances, int[] keywordHierarchyMasks, int[] keywordConflictMasks,
+			double maxMetricPerHop) {
+		this.graph = graph;
+		this.authorIsExtensible = authorIsExtensible;
+		this.keywordIsUsable = keywordIsUsable;
+		this.keywordWeights = keywordWeights;
+		this.keywordHeadingIds = keywordHeadingIds;
+		this.headingDistances = headingDistances;
+		this.keywordHierarchyMasks = keywordHierarchyMasks;
+		this.keywordConflictMasks = keywordConflictMasks;
+		this.maxMetricPerHop = maxMetricPerHop;
+	}
+
+	/** GETTER **/
+	public long getExpandedEntryCount() {
+		return expandedEntryCount;
+	}
+
+	public int getMaxEntryCount() {
+		return maxEntryCount;
+	}
+
+	/** SETTER **/
+	public void setMaxEntryCount(int maxEntryCount) {
+		this.maxEntryCount = maxEntryCount;
+	}
+
+	/**
+	 * Finds the best paths of an author
+	 * @param author
+	 * @param pathCount - how many paths to find
+	 * @param degreesOfSeparation - the number of keywords on every path
+	 * @param pathWeightageThreshold
+	 * @return the paths as PathFinder writes them, metric,author,keyword,...,author,
+	 * from the highest metric down
+	 * @throws IllegalStateException if the search needs more than maxEntryCount partial paths
+	 */
+	public synchronized List<String> findBestPaths(String author, int pathCount,
+			int degreesOfSeparation, double pathWeightageThreshold) {
+		int root = graph.getAuthorId(author);
+		List<String> paths = new ArrayList<String>();
+		if (root < 0 || pathCount < 1 || degreesOfSeparation < 1) {
+			return paths;
+		}
+		entryCount = 0;
+		queueSize = 0;
+		expandedEntryCount = 0;
+		addEntry(-1, root, NO_PARENT, 0, 0, 0.0, degreesOfSeparation * maxMetricPerHop);
+
+		// the complete paths found, best first; the search goes on while the
+		// queue may still hold a path that ties with the worst of them
+		List<Integer> found = new ArrayList<Integer>();
+		double floor = Double.NEGATIVE_INFINITY;
+		while (queueSize > 0 && (found.size() < pathCount || entryPriorities[queue[0]] >= floor)) {
+			int entry = poll();
+			if (entryDepths[entry] == degreesOfSeparation) {
+				found.add(entry);
+				if (found.size() == pathCount) {
+					floor = entryMetrics[entry];
+				}
+				continue;
+			}
+			++expandedEntryCount;
+			expand(entry, degreesOfSeparation, pathWeightageThreshold);
+		}
+
+		int[][] foundPaths = new int[found.size()][];
+		Integer[] order = new Integer[found.size()];
+		for (int i = 0; i < order.length; i++) {
+			foundPaths[i] = toPath(found.get(i));
+			order[i] = i;
+		}
+		sortBestFirst(order, found, foundPaths);
+		for (int i = 0; i < Math.min(pathCount, order.length); i++) {
+			StringBuilder line = new StringBuilder();
+			line.append(entryMetrics[found.get(order[i])]);
+			for (int node : foundPaths[order[i]]) {
+				line.append(COMMA).append(graph.getName(node));
+			}
+			paths.add(line.toString());
+		}
+		return Collections.unmodifiableList(paths);
+	}
+
+	/**
+	 * Adds every valid hop to the end of a partial path to the queue, unless
+	 * it can no longer reach the path weightage threshold
+	 */
+	private void expand(int entry, int degreesOfSeparation, double pathWeightageThreshold) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int author = entryAuthors[entry];
+		int previousKw = entryKeywords[entry];
+		int depth = entryDepths[entry];
+		int hierarchies = entryHierarchies[entry];
+		double metric = entryMetrics[entry];
+		for (int kwIndex = offsets[author]; kwIndex < offsets[author + 1]; kwIndex++) {
+			int kw = neighbors[kwIndex];
+			if (!keywordIsUsable[kw] || isOnPath(entry, kw)) {
+				continue;
+			}
+			if (keywordHierarchyMasks != null && (hierarchies & keywordConflictMasks[kw]) != 0) {
+				continue;
+			}
+			double extendedMetric = metric + keywordWeights[kw];
+			if (previousKw >= 0) {
+				extendedMetric += headingDistances[keywordHeadingIds[kw]][keywordHeadingIds[previousKw]];
+			}
+			double bound = extendedMetric + (degreesOfSeparation - depth - 1) * maxMetricPerHop;
+			if (bound < pathWeightageThreshold) {
+				continue;
+			}
+			int extendedHierarchies = keywordHierarchyMasks == null ? 0 : hierarchies | keywordHierarchyMasks[kw];
+			for (int authorIndex = offsets[kw]; authorIndex < offsets[kw + 1]; authorIndex++) {
+				int nextAuthor = neighbors[authorIndex];
+				if (authorIsExtensible[nextAuthor] && !isOnPath(entry, nextAuthor)) {
+					addEntry(kw, nextAuthor, entry, depth + 1, extendedHierarchies, extendedMetric, bound);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Walks up the shared prefix of an entry, at most degreesOfSeparation hops
+	 */
+	private boolean isOnPath(int entry, int node) {
+		for (int e = entry; e != NO_PARENT; e = entryParents[e]) {
+			if (entryAuthors[e] == node || entryKeywords[e] == node) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int[] toPath(int entry) {
+		int[] path = new int[2 * entryDepths[entry] + 1];
+		int i = path.length - 1;
+		for (int e = entry; e != NO_PARENT; e = entryParents[e]) {
+			path[i--] = entryAuthors[e];
+			if (i >= 0) {
+				path[i--] = entryKeywords[e];
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Sorts by metric, highest first, and on a tie by the lower node IDs
+	 */
+	private void sortBestFirst(Integer[] order, final List<Integer> found, final int[][] foundPaths) {
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				int byMetric = Double.compare(entryMetrics[found.get(i2)], entryMetrics[found.get(i1)]);
+				if (byMetric != 0) {
+					return byMetric;
+				}
+				int[] path1 = foundPaths[i1];
+				int[] path2 = foundPaths[i2];
+				for (int i = 0; i < Math.min(path1.length, path2.length); i++) {
+					if (path1[i] != path2[i]) {
+						return path1[i] < path2[i] ? -1 : 1;
+					}
+				}
+				return path1.length - path2.length;
+			}
+		});
+	}
+
+	private void addEntry(int kw, int author, int parent, int depth, int hierarchies, double metric, double priority) {
+		if (entryCount == maxEntryCount) {
+			throw new IllegalStateException("The best first search from " + graph.getName(entryAuthors[0]) +
+					" needs more than " + maxEntryCount + " partial paths; ask for fewer paths or raise the limit");
+		}
+		if (entryCount == entryKeywords.length) {
+			int capacity = (int) Math.min(2L * entryCount, maxEntryCount);
+			entryKeywords = Arrays.copyOf(entryKeywords, capacity);
+			entryAuthors = Arrays.copyOf(entryAuthors, capacity);
+			entryParents = Arrays.copyOf(entryParents, capacity);
+			entryDepths = Arrays.copyOf(entryDepths, capacity);
+			entryHierarchies = Arrays.copyOf(entryHierarchies, capacity);
+			entryMetrics = Arrays.copyOf(entryMetrics, capacity);
+			entryPriorities = Arrays.copyOf(entryPriorities, capacity);
+		}
+		int entry = entryCount++;
+		entryKeywords[entry] = kw;
+		entryAuthors[entry] = author;
+		entryParents[entry] = parent;
+		entryDepths[entry] = depth;
+		entryHierarchies[entry] = hierarchies;
+		entryMetrics[entry] = metric;
+		entryPriorities[entry] = priority;
+		if (queueSize == queue.length) {
+			queue = Arrays.copyOf(queue, 2 * queueSize);
+		}
+		queue[queueSize] = entry;
+		siftUp(queueSize++);
+	}
+
+	private int poll() {
+		int entry = queue[0];
+		queue[0] = queue[--queueSize];
+		siftDown(0);
+		return entry;
+	}
+
+	/**
+	 * An entry comes out first if it has the higher priority or, on a tie,
+	 * is complete while the other is not, or else was added first
+	 */
+	private boolean comesFirst(int entry, int other) {
+		if (entryPriorities[entry] != entryPriorities[other]) {
+			return entryPriorities[entry] > entryPriorities[other];
+		}
+		if (entryDepths[entry] != entryDepths[other]) {
+			return entryDepths[entry] > entryDepths[other];
+		}
+		return entry < other;
+	}
+
+	private void siftUp(int slot) {
+		while (slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if (!comesFirst(queue[slot], queue[parent])) {
+				break;
+			}
+			swap(slot, parent);
+			slot = parent;
+		}
+	}
+
+	private void siftDown(int slot) {
+		while (true) {
+			int first = slot;
+			int left = 2 * slot + 1, right = left + 1;
+			if (left < queueSize && comesFirst(queue[left], queue[first])) {
+				first = left;
+			}
+			if (right < queueSize && comesFirst(queue[right], queue[first])) {
+				first = right;
+			}
+			if (first == slot) {
+				return;
+			}
+			swap(slot, first);
+			slot = first;
+		}
+	}
+
+	private void swap(int i, int j) {
+		int entry = queue[i];
+		queue[i] = queue[j];
+		queue[j] = entry;
+	}
+}
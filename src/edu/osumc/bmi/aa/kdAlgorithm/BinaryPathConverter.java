@@ -0,0 +1,82 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.apache.log4j.Logger;
+
+import edu.osumc.bmi.aa.util.AcaAnaLogger;
+
+/**
+ * Converts binary paths files back to the CSV format PathFinder writes
+ * by default: metric,author,keyword,author,...
+ * The metric is stored as a float, so it is printed with float precision.
+ * Usage: BinaryPathConverter <file or directory>...
+ * Every .bin file given, or found in a directory given, is converted to a
+ * .csv file next to it
+ */
+public class BinaryPathConverter {
+
+	public static Logger log = Logger.getLogger(BinaryPathConverter.class);
+
+	private static final String COMMA = ",";
+	private static final String BIN_FILE_EXTN = ".bin";
+	private static final String CSV_FILE_EXTN = ".csv";
+
+	/**
+	 * Converts one binary paths file to CSV
+	 * @param binaryFile
+	 * @param csvFile
+	 * @throws IOException
+	 */
+	public static void convertToCsv(File binaryFile, File csvFile) throws IOException {
+		BinaryPathReader reader = new BinaryPathReader(binaryFile);
+		PrintWriter pw = null;
+		try {
+			pw = new PrintWriter(csvFile);
+			String[] names = new String[reader.getNameCount()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = reader.getName(i);
+			}
+			StringBuilder line = new StringBuilder();
+			BinaryPathReader.Cursor cursor = reader.cursor();
+			while (cursor.next()) {
+				line.setLength(0);
+				line.append(cursor.getMetric());
+				for (int i = 0; i < cursor.getLength(); i++) {
+					line.append(COMMA).append(names[cursor.getNode(i)]);
+				}
+				pw.println(line);
+			}
+		} finally {
+			if (pw != null) {
+				pw.flush();
+				pw.close();
+			}
+			reader.close();
+		}
+	}
+
+	public static void main(String[] args) {
+		AcaAnaLogger.initLogger();
+		for (String arg : args) {
+			File file = new File(arg);
+			File[] files = file.isDirectory() ? file.listFiles() : new File[] { file };
+			for (File binaryFile : files) {
+				String name = binaryFile.getPath();
+				if (!name.endsWith(BIN_FILE_EXTN)) {
+					continue;
+				}
+				File csvFile = new File(name.substring(0, name.length() - BIN_FILE_EXTN.length()) + CSV_FILE_EXTN);
+				try {
+					convertToCsv(binaryFile, csvFile);
+					log.info("Converted " + binaryFile + " to " + csvFile);
+				} catch (IOException e) {
+					log.error("IOException: Problems converting " + binaryFile);
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the paths of one paths file in the compact binary format read by
+ * BinaryPathReader, and hands the bytes to a PathSink.
+ *
+ * The layout of a file is:
+ * 1. a header: the magic number and the format version,
+ * 2. one record per path: the number of nodes as a varint, then for every
+ * node the zigzag varint difference between its local ID and the local ID
+ * at the same position of the previous path, then the metric as a float,
+ * 3. the dictionary: the number of names as a varint, then every name as a
+ * varint byte count followed by its UTF-8 bytes, in local ID order,
+ * 4. a fixed size trailer: the offset of the dictionary, the number of
+ * paths, the number of names and the magic number again.
+ *
+ * Local IDs are handed out by a LocalIdMap in the order nodes first show up
+ * in the file, so the dictionary only holds the names the file uses, and
+ * encoding a file takes memory for those names only, not for every node of
+ * the graph. The dictionary is only
+ * complete once the last path is written, which is why it trails the
+ * records and the trailer points back to it. Paths written in depth first
+ * order share most of their prefix with the previous path, so most of the
+ * differences are 0 and take a single byte.
+ * A file without paths is left empty, like an empty CSV file.
+ */
+public class BinaryPathEncoder implements PathEncoder {
+
+	public static final int MAGIC = 0x41415042; // "AAPB"
+	public static final short VERSION = 1;
+	public static final int HEADER_BYTES = 6;
+	public static final int TRAILER_BYTES = 20;
+
+	private PathSink sink;
+	private byte[][] nameBytes;
+
+	private LocalIdMap localIds = new LocalIdMap();
+
+	private int[] previousPath = new int[16];
+	private int previousLength = 0;
+	private int pathCount = 0;
+	private long bytesWritten = 0;
+
+	private byte[] buffer = new byte[256];
+	private int length = 0;
+
+	/**
+	 * @param sink - where the encoded file goes
+	 * @param nameBytes - the UTF-8 name of every node in the graph, by node ID
+	 */
+	public BinaryPathEncoder(PathSink sink, byte[][] nameBytes) {
+		this.sink = sink;
+		this.nameBytes = nameBytes;
+	}
+
+	/**
+	 * Encodes one path
+	 * @param path - node IDs
+	 * @param pathLength
+	 * @param metric
+	 */
+	@Override
+	public void writePath(int[] path, int pathLength, double metric) {
+		length = 0;
+		if (pathCount == 0) {
+			putInt(MAGIC);
+			putShort(VERSION);
+		}
+		if (pathLength > previousPath.length) {
+			previousPath = Arrays.copyOf(previousPath, 2 * pathLength);
+		}
+		putVarint(pathLength);
+		for (int i = 0; i < pathLength; i++) {
+			int localId = localIds.intern(path[i]);
+			int previousId = i < previousLength ? previousPath[i] : 0;
+			putVarint(zigzag(localId - previousId));
+			previousPath[i] = localId;
+		}
+		previousLength = pathLength;
+		putInt(Float.floatToIntBits((float) metric));
+		++pathCount;
+		flushBuffer();
+	}
+
+	/**
+	 * Writes the dictionary and the trailer, and closes the sink
+	 */
+	@Override
+	public void close() {
+		if (pathCount > 0) {
+			long dictionaryOffset = bytesWritten;
+			length = 0;
+			putVarint(localIds.size());
+			for (int i = 0; i < localIds.size(); i++) {
+				byte[] name = nameBytes[localIds.getNode(i)];
+				putVarint(name.length);
+				ensureCapacity(name.length);
+				System.arraycopy(name, 0, buffer, length, name.length);
+				length += name.length;
+			}
+			putLong(dictionaryOffset);
+			putInt(pathCount);
+			putInt(localIds.size());
+			putInt(MAGIC);
+			flushBuffer();
+		}
+		sink.close();
+	}
+
+	private void flushBuffer() {
+		sink.write(buffer, length);
+		bytesWritten += length;
+		length = 0;
+	}
+
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private void ensureCapacity(int extraBytes) {
+		if (length + extraBytes > buffer.length) {
+			buffer = Arrays.copyOf(buffer, 2 * (length + extraBytes));
+		}
+	}
+
+	private void putVarint(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7f) != 0) {
+			buffer[length++] = (byte) ((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		buffer[length++] = (byte) value;
+	}
+
+	private void putShort(short value) {
+		ensureCapacity(2);
+		buffer[length++] = (byte) (value >>> 8);
+		buffer[length++] = (byte) value;
+	}
+
+	private void putInt(int value) {
+		ensureCapacity(4);
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			buffer[length++] = (byte) (value >>> shift);
+		}
+	}
+
+	private void putLong(long value) {
+		ensureCapacity(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			buffer[length++] = (byte) (value >>> shift);
+		}
+	}
+}
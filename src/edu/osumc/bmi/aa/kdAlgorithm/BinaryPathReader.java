@@ -0,0 +1,158 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a paths file written in the binary format of BinaryPathEncoder.
+ *
+ * The file is memory-mapped through a MappedPathFile, in windows, so files
+ * larger than 2 GB can be read too, and paths are read through a Cursor
+ * that decodes one record at a time into an int array of local IDs, so
+ * walking or filtering the paths allocates nothing and never touches a
+ * string. Names are only decoded when asked for.
+ * Usage:
+ * 	BinaryPathReader reader = new BinaryPathReader(file);
+ * 	BinaryPathReader.Cursor cursor = reader.cursor(reader.findName("P011"));
+ * 	while (cursor.next()) { ... cursor.getNode(i), cursor.getMetric() ... }
+ * 	reader.close();
+ */
+public class BinaryPathReader implements Closeable {
+
+	private MappedPathFile file;
+	private int pathCount = 0;
+	private long recordsEnd = 0;
+
+	public BinaryPathReader(File pathsFile) throws IOException {
+		file = new MappedPathFile(pathsFile);
+		if (file.size() == 0) {
+			return; // a file without paths is empty
+		}
+		if (file.size() < BinaryPathEncoder.HEADER_BYTES + BinaryPathEncoder.TRAILER_BYTES
+				|| file.getInt(0) != BinaryPathEncoder.MAGIC
+				|| file.getInt(file.size() - 4) != BinaryPathEncoder.MAGIC) {
+			file.close();
+			throw new IOException("Not a binary paths file: " + pathsFile);
+		}
+		if (file.getShort(4) != BinaryPathEncoder.VERSION) {
+			file.close();
+			throw new IOException("Unsupported binary paths version " + file.getShort(4) + " in " + pathsFile);
+		}
+		long trailer = file.size() - BinaryPathEncoder.TRAILER_BYTES;
+		recordsEnd = file.getLong(trailer);
+		pathCount = file.getInt(trailer + 8);
+		file.indexDictionary(recordsEnd, file.getInt(trailer + 12));
+	}
+
+	/** GETTER **/
+	public int getPathCount() {
+		return pathCount;
+	}
+
+	/** GETTER **/
+	public int getNameCount() {
+		return file.getNameCount();
+	}
+
+	/**
+	 * Decodes the name of a local ID
+	 * @param localId
+	 * @return
+	 */
+	public String getName(int localId) {
+		return file.getName(localId);
+	}
+
+	/**
+	 * Looks a name up by comparing bytes against the dictionary
+	 * @param name
+	 * @return the local ID of the name, or -1 if no path in the file uses it
+	 */
+	public int findName(String name) {
+		return file.findName(name);
+	}
+
+	/**
+	 * @return a cursor over every path in the file
+	 */
+	public Cursor cursor() {
+		return new Cursor(-1);
+	}
+
+	/**
+	 * @param endpointId - the local ID the paths have to end with, as found by findName
+	 * @return a cursor over the paths that end with the given local ID
+	 */
+	public Cursor cursor(int endpointId) {
+		return new Cursor(endpointId);
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Walks the records of the file in order. The node IDs of the current
+	 * path are only valid until the next call to next()
+	 */
+	public class Cursor {
+		private MappedPathFile.Input records;
+		private int endpointId;
+		private int[] path = new int[16];
+		private int length = 0;
+		private float metric;
+
+		private Cursor(int endpointId) {
+			this.endpointId = endpointId;
+			records = file.input(pathCount > 0 ? BinaryPathEncoder.HEADER_BYTES : 0, recordsEnd);
+		}
+
+		/**
+		 * Moves on to the next path, skipping the paths that do not
+		 * end with the endpoint of the cursor
+		 * @return false once there are no more paths
+		 */
+		public boolean next() {
+			while (records.hasRemaining()) {
+				int nextLength = records.getVarint();
+				if (nextLength > path.length) {
+					path = Arrays.copyOf(path, 2 * nextLength);
+				}
+				for (int i = 0; i < nextLength; i++) {
+					int zigzag = records.getVarint();
+					int previousId = i < length ? path[i] : 0;
+					path[i] = previousId + ((zigzag >>> 1) ^ -(zigzag & 1));
+				}
+				length = nextLength;
+				metric = records.getFloat();
+				if (endpointId < 0 || (length > 0 && path[length - 1] == endpointId)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * @param index
+		 * @return the local ID of the node at the given position of the path
+		 */
+		public int getNode(int index) {
+			return path[index];
+		}
+
+		public int getEndpoint() {
+			return path[length - 1];
+		}
+
+		public float getMetric() {
+			return metric;
+		}
+	}
+}
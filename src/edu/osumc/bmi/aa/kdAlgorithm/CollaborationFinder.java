@@ -2,9 +2,9 @@ package edu.osumc.bmi.aa.kdAlgorithm;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.log4j.Level;
@@ -17,16 +17,23 @@ public class CollaborationFinder {
 	public static Logger log = Logger.getLogger(CollaborationFinder.class);
 
 	private Map<String, Set<String>> k2rMap;
+	private AuthorKeywordGraph graph;
+	private KeywordHubPolicy hubPolicy = KeywordHubPolicy.NONE;
 
 	/**
 	 * This map relates a pair of potential collaborators to the keywords that
-	 * link them
+	 * link them. The pair of author IDs is packed into a single long key and
+	 * the names are only resolved in the getter
 	 **/
-	private Map<List<String>, List<String>> mapFromCollabsToKeywords;
+	private Map<Long, List<Integer>> mapFromCollabsToKeywords;
 
 	/** GETTER **/
 	public Map<List<String>, List<String>> getMapFromCollabsToKeywords() {
-		return mapFromCollabsToKeywords;
+		Map<List<String>, List<String>> namedMap = new HashMap<List<String>, List<String>>();
+		for (Entry<Long, List<Integer>> entry : mapFromCollabsToKeywords.entrySet()) {
+			namedMap.put(resolveAuthorPair(entry.getKey()), resolveNames(entry.getValue()));
+		}
+		return namedMap;
 	}
 
 	public Map<String, Set<String>> getK2rMap() {
@@ -34,104 +41,118 @@ public class CollaborationFinder {
 	}
 
 	public CollaborationFinder() {
-		AuthorKeywordDataProcessor akdp = new AuthorKeywordDataProcessor();
-		akdp.loadDataFromCsvFileIntoDataStructures();
+		this(loadKeyword2AuthorsMap());
+	}
 
-		k2rMap = akdp.getKeyword2AuthorsMap();
-		mapFromCollabsToKeywords = new HashMap<List<String>, List<String>>();
+	/**
+	 * @param k2rMap - the authors of every keyword
+	 */
+	public CollaborationFinder(Map<String, Set<String>> k2rMap) {
+		this.k2rMap = k2rMap;
+		graph = new AuthorKeywordGraph(new HashMap<String, Set<String>>(), k2rMap);
+		mapFromCollabsToKeywords = new HashMap<Long, List<Integer>>();
 
 		log.setLevel(Level.INFO);
 	}
 
+	private static Map<String, Set<String>> loadKeyword2AuthorsMap() {
+		AuthorKeywordDataProcessor akdp = new AuthorKeywordDataProcessor();
+		akdp.loadDataFromCsvFileIntoDataStructures();
+		return akdp.getKeyword2AuthorsMap();
+	}
+
+	/** SETTER **/
+	public void setHubPolicy(KeywordHubPolicy hubPolicy) {
+		this.hubPolicy = hubPolicy;
+	}
+
+	/**
+	 * Pairs up the authors of every keyword. The hub policy decides which
+	 * authors of a hub keyword are paired up; keywords carry no weights
+	 * here, so an IDF policy keeps every pair
+	 */
 	public void generatePossibleCollaborations() {
-		Set<String> authorSet;
+		AuthorKeywordGraph keptGraph = hubPolicy.restrictFanOut(graph);
+		int[] offsets = keptGraph.getOffsets();
+		int[] neighbors = keptGraph.getNeighbors();
+		int authorCount;
+		long removedPairCount = 0;
 		
-		for (String keyword : k2rMap.keySet()) {
-			authorSet = k2rMap.get(keyword);
-			if(authorSet.size() > 1){
-				log.debug("Working with keyword: \"" + keyword + "\" with " + authorSet.size() + " authors");
-			
-//				if(authorSet.size() > 20){
-//					log.info(keyword + " ----> " + authorSet.size() + " authors");
-//					//TODO we need to do something different for these large numbers
-//					continue;
-//				}
+		for (int keyword = graph.getAuthorCount(); keyword < graph.getNodeCount(); keyword++) {
+			authorCount = keptGraph.getDegree(keyword);
+			if(authorCount < graph.getDegree(keyword)){
+				log.debug(graph.getName(keyword) + " ----> " + graph.getDegree(keyword) + " authors, " + authorCount + " kept");
+				removedPairCount += countPairs(graph.getDegree(keyword)) - countPairs(authorCount);
+			}
+			if(authorCount > 1){
+				log.debug("Working with keyword: \"" + graph.getName(keyword) + "\" with " + authorCount + " authors");
 				
-				List<List<String>> listOfAuthorPairs = generateListOfAuthorPairs(authorSet);
-				for (List<String> authorPair : listOfAuthorPairs) {
-					addKeywordToAuthorPairList(keyword, authorPair);
+				for (int i = offsets[keyword]; i < offsets[keyword + 1]; i++) {
+					for (int j = i + 1; j < offsets[keyword + 1]; j++) {
+						addKeywordToAuthorPairList(keyword, packAuthorPair(neighbors[i], neighbors[j]));
+					}
 				}
 			}
 		}
+		if(hubPolicy != KeywordHubPolicy.NONE){
+			log.info("The hub policy " + hubPolicy + " removed " + removedPairCount + " author pair expansions");
+		}
 	}
 
-	private List<List<String>> generateListOfAuthorPairs(Set<String> authorSet) {
-
-		String[] authorArray = new String[authorSet.size()];
-		authorArray = authorSet.toArray(authorArray);
+	private long countPairs(long authorCount) {
+		return authorCount * (authorCount - 1) / 2;
+	}
 
-		List<List<String>> listOfAuthorPairs = generateAuthorPairs(authorArray);
-		return listOfAuthorPairs;
+	/**
+	 * Packs an ordered pair of author IDs into a single map key
+	 * @param author1
+	 * @param author2
+	 * @return
+	 */
+	private long packAuthorPair(int author1, int author2) {
+		return ((long) author1 << 32) | (author2 & 0xFFFFFFFFL);
 	}
 
-	private List<List<String>> generateAuthorPairs(String[] authorArray) {
-		List<String> authorPair;
-		List<List<String>> listOfAuthorPairs = new ArrayList<List<String>>();
+	private List<String> resolveAuthorPair(long authorPair) {
+		List<String> names = new ArrayList<String>(2);
+		names.add(graph.getName((int) (authorPair >>> 32)));
+		names.add(graph.getName((int) authorPair));
+		return names;
+	}
 
-		for (int i = 0; i < authorArray.length; i++) {
-			for (int j = i + 1; j < authorArray.length; j++) {
-				authorPair = new ArrayList<String>();
-				authorPair.add(authorArray[i]);
-				authorPair.add(authorArray[j]);
-				listOfAuthorPairs.add(authorPair);
-			}
+	private List<String> resolveNames(List<Integer> nodes) {
+		List<String> names = new ArrayList<String>(nodes.size());
+		for (int node : nodes) {
+			names.add(graph.getName(node));
 		}
-		return listOfAuthorPairs;
+		return names;
 	}
 
-	private void addKeywordToAuthorPairList(String keyword,
-			List<String> authorPair) {
-		List<String> keywordList;
-		Set<List<String>> setOfAuthorPairs = mapFromCollabsToKeywords.keySet();
+	private void addKeywordToAuthorPairList(int keyword, long authorPair) {
+		List<Integer> keywordList = mapFromCollabsToKeywords.get(authorPair);
 
-		if (authorPairExists(authorPair, setOfAuthorPairs)) {
-			keywordList = mapFromCollabsToKeywords.get(authorPair);
-		} else {
-			keywordList = new ArrayList<String>();
+		if (keywordList == null) {
+			keywordList = new ArrayList<Integer>();
+			mapFromCollabsToKeywords.put(authorPair, keywordList);
 		}
-		log.debug("Adding keyword: " + keyword + " for author pair: {"
-				+ authorPair.get(0) + ", " + authorPair.get(1) + "}");
-		keywordList.add(keyword);
-		mapFromCollabsToKeywords.put(authorPair, keywordList);
-	}
-
-	private boolean authorPairExists(List<String> authorPair,
-			Set<List<String>> setOfAuthorPairs) {
-		Iterator<List<String>> setIterator = setOfAuthorPairs.iterator();
-		List<String> nextAuthorPair;
-		String author1 = authorPair.get(0), author2 = authorPair.get(1);
-		String nextAuthor1 = "", nextAuthor2 = "";
-
-		while (setIterator.hasNext()) {
-			nextAuthorPair = setIterator.next();
-			nextAuthor1 = nextAuthorPair.get(0);
-			nextAuthor2 = nextAuthorPair.get(1);
-			if (nextAuthor1.equals(author1) && nextAuthor2.equals(author2)) {
-				return true;
-			}
+		if (log.isDebugEnabled()) {
+			List<String> authorNames = resolveAuthorPair(authorPair);
+			log.debug("Adding keyword: " + graph.getName(keyword) + " for author pair: {"
+					+ authorNames.get(0) + ", " + authorNames.get(1) + "}");
 		}
-		return false;
+		keywordList.add(keyword);
 	}
 
 	private void printMapFromAuthorPairsToCommonKeywords() {
 		String line = "", author1 = "", author2 = "";
 		int i = 0, collabCount = 0;
-		for (List<String> authorPair : mapFromCollabsToKeywords.keySet()) {
+		for (Entry<Long, List<Integer>> entry : mapFromCollabsToKeywords.entrySet()) {
 			++collabCount;
+			List<String> authorPair = resolveAuthorPair(entry.getKey());
 			author1 = authorPair.get(0);
 			author2 = authorPair.get(1);
 			line = "<" + author1 + "," + author2 + "> ---> {";
-			List<String> keywords = mapFromCollabsToKeywords.get(authorPair);
+			List<String> keywords = resolveNames(entry.getValue());
 			for (i = 0; i < keywords.size() - 1; i++) {
 				line += keywords.get(i) + ", ";
 			}
@@ -143,6 +164,9 @@ public class CollaborationFinder {
 
 	public static void main(String[] args) {
 		CollaborationFinder cf = new CollaborationFinder();
+		if(args.length > 0){
+			cf.setHubPolicy(KeywordHubPolicy.parse(args[0]));
+		}
 		cf.generatePossibleCollaborations();
 		cf.printMapFromAuthorPairsToCommonKeywords();
 	}
@@ -0,0 +1,137 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+
+/**
+ * Counts how often each node ID turns up at the end of the paths of one
+ * root author. The counts live in an open addressing table of primitive
+ * ints with linear probing, so counting a path allocates nothing and the
+ * memory grows with the number of distinct endpoints, not with the number
+ * of paths. Node IDs are never negative, so an empty slot holds -1
+ */
+public class EndpointCounter {
+
+	private static final int EMPTY = -1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] keys;
+	private int[] counts;
+	private int size = 0;
+
+	public EndpointCounter() {
+		keys = new int[INITIAL_CAPACITY];
+		counts = new int[INITIAL_CAPACITY];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * @return the number of distinct endpoints counted
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Counts one more occurrence of an endpoint
+	 * @param node
+	 */
+	public void increment(int node) {
+		add(node, 1);
+	}
+
+	/**
+	 * Adds to the count of an endpoint
+	 * @param node
+	 * @param count
+	 */
+	public void add(int node, int count) {
+		int slot = findSlot(keys, node);
+		if (keys[slot] == EMPTY) {
+			keys[slot] = node;
+			if (++size > (keys.length >>> 1) + (keys.length >>> 2)) {
+				grow();
+				slot = findSlot(keys, node);
+			}
+		}
+		counts[slot] += count;
+	}
+
+	/**
+	 * Adds every count of another counter to this one
+	 * @param other
+	 */
+	public void addAll(EndpointCounter other) {
+		for (int slot = 0; slot < other.keys.length; slot++) {
+			if (other.keys[slot] != EMPTY) {
+				add(other.keys[slot], other.counts[slot]);
+			}
+		}
+	}
+
+	/**
+	 * @param node
+	 * @return the number of times the endpoint was counted, 0 if never
+	 */
+	public int get(int node) {
+		int slot = findSlot(keys, node);
+		return keys[slot] == EMPTY ? 0 : counts[slot];
+	}
+
+	/**
+	 * @return the distinct endpoints counted, in no particular order
+	 */
+	public int[] getEndpoints() {
+		int[] endpoints = new int[size];
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != EMPTY) {
+				endpoints[i++] = keys[slot];
+			}
+		}
+		return endpoints;
+	}
+
+	/**
+	 * Finds the slot holding a node, or the empty slot where it would go
+	 * @param table
+	 * @param node
+	 * @return
+	 */
+	private static int findSlot(int[] table, int node) {
+		int mask = table.length - 1;
+		int slot = mix(node) & mask;
+		while (table[slot] != EMPTY && table[slot] != node) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Spreads the bits of consecutive node IDs across the table
+	 * @param node
+	 * @return
+	 */
+	private static int mix(int node) {
+		int h = node * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new int[oldKeys.length << 1];
+		counts = new int[oldKeys.length << 1];
+		Arrays.fill(keys, EMPTY);
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldKeys[slot] != EMPTY) {
+				int newSlot = findSlot(keys, oldKeys[slot]);
+				keys[newSlot] = oldKeys[slot];
+				counts[newSlot] = oldCounts[slot];
+			}
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The disk space of the frontiers that do not fit in memory. The space is
+ * cut into segment files of a fixed size, each memory mapped once, that
+ * hold length-prefixed sequences of node IDs appended one after the other.
+ * A frontier fills its segments in order and reads them back in order, so
+ * a spilled level is written and read at the speed of sequential I/O.
+ *
+ * A frontier hands its segments back when it is closed, and the next
+ * frontier to spill reuses them, so a search only ever maps as many
+ * segments as the two levels it has in flight need. Mapped files cannot
+ * be unmapped on demand, so the segments are only deleted when the store
+ * is closed
+ */
+public class FrontierSegmentStore {
+
+	public static Logger log = Logger.getLogger(FrontierSegmentStore.class);
+
+	public static final int BYTES_PER_NODE = 4;
+
+	private static final String SEGMENT_FILE_STR = "segment";
+	private static final String SEGMENT_FILE_EXTN = ".bin";
+
+	private File segmentDir;
+	private int segmentSize;
+	private List<Segment> segments = new ArrayList<Segment>();
+	private Deque<Segment> freeSegments = new ArrayDeque<Segment>();
+
+	/**
+	 * @param segmentDir the directory the segment files are created in
+	 * @param segmentSize the bytes in every segment
+	 */
+	public FrontierSegmentStore(File segmentDir, int segmentSize) {
+		this.segmentDir = segmentDir;
+		this.segmentSize = segmentSize;
+	}
+
+	/** GETTER **/
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * @return the number of segment files mapped so far
+	 */
+	public synchronized int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Hands out an empty segment, a recycled one if there is one
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized Segment acquire() throws IOException {
+		Segment segment = freeSegments.pollFirst();
+		if (segment == null) {
+			segmentDir.mkdirs();
+			File file = new File(segmentDir, SEGMENT_FILE_STR + segments.size() + SEGMENT_FILE_EXTN);
+			segment = new Segment(file, segmentSize);
+			segments.add(segment);
+			log.debug("Mapped frontier segment " + file.getName());
+		}
+		return segment;
+	}
+
+	/**
+	 * Takes back a segment that is no longer read, for reuse
+	 * @param segment
+	 */
+	public synchronized void release(Segment segment) {
+		segment.clear();
+		freeSegments.addFirst(segment);
+	}
+
+	/**
+	 * Deletes every segment file. The store cannot be used afterwards
+	 */
+	public synchronized void close() {
+		for (Segment segment : segments) {
+			segment.close();
+		}
+		segments.clear();
+		freeSegments.clear();
+	}
+
+	/**
+	 * One memory mapped segment file. Sequences are appended at the write
+	 * position and read through views of their own, so several readers can
+	 * go through a segment at the same time once it is no longer written
+	 */
+	public static class Segment {
+		private File file;
+		private RandomAccessFile raf;
+		private MappedByteBuffer buffer;
+
+		private Segment(File file, int segmentSize) throws IOException {
+			this.file = file;
+			raf = new RandomAccessFile(file, "rw");
+			buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		}
+
+		/**
+		 * @param length the number of node IDs in a sequence
+		 * @return true if a sequence of that length still fits
+		 */
+		public boolean hasRoomFor(int length) {
+			return buffer.remaining() >= (length + 1) * BYTES_PER_NODE;
+		}
+
+		/**
+		 * Appends the first length node IDs of a sequence, after its length
+		 * @param nodes
+		 * @param length
+		 */
+		public void append(int[] nodes, int length) {
+			buffer.putInt(length);
+			for (int i = 0; i < length; i++) {
+				buffer.putInt(nodes[i]);
+			}
+		}
+
+		/**
+		 * @return a view of the sequences written so far, positioned at the first
+		 */
+		public ByteBuffer openView() {
+			ByteBuffer view = buffer.duplicate();
+			view.flip();
+			return view;
+		}
+
+		private void clear() {
+			buffer.clear();
+		}
+
+		private void close() {
+			try {
+				raf.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			buffer = null;
+			if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+	}
+}
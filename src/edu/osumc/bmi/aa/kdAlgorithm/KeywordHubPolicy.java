@@ -0,0 +1,205 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Decides what to do with hub keywords, the keywords attached to so many
+ * authors that every path through them branches out of control.
+ *
+ * NONE leaves the graph alone.
+ * CAP keeps the first maxFanOut authors of every keyword, in adjacency order.
+ * SAMPLE keeps maxFanOut authors of every keyword picked at random. The
+ * random generator of a keyword is seeded from the seed and the name of the
+ * keyword, so the same seed always keeps the same authors.
+ * IDF keeps every author but scales the weight of a keyword with more than
+ * maxFanOut authors by its inverse document frequency, relative to that of
+ * a keyword with exactly maxFanOut authors. Hubs get lighter, fall under the
+ * keyword weightage threshold or get pruned by the path weightage threshold.
+ *
+ * Only the edges from keywords to authors are touched, so the authors and
+ * keywords keep their IDs. Written as none, cap:N, sample:N or sample:N:seed
+ * and idf:N
+ */
+public class KeywordHubPolicy {
+
+	public static Logger log = Logger.getLogger(KeywordHubPolicy.class);
+
+	public static final KeywordHubPolicy NONE = new KeywordHubPolicy(Mode.NONE, Integer.MAX_VALUE, 0L);
+
+	private static final String SEPARATOR = ":";
+	private static final long DEFAULT_SEED = 0L;
+
+	public enum Mode {
+		NONE, CAP, SAMPLE, IDF
+	}
+
+	private Mode mode;
+	private int maxFanOut;
+	private long seed;
+
+	public KeywordHubPolicy(Mode mode, int maxFanOut, long seed) {
+		if (mode != Mode.NONE && maxFanOut < 1) {
+			throw new IllegalArgumentException("A hub policy needs a fan-out of at least 1 but got " + maxFanOut);
+		}
+		this.mode = mode;
+		this.maxFanOut = maxFanOut;
+		this.seed = seed;
+	}
+
+	/**
+	 * Parses a policy written as none, cap:N, sample:N[:seed] or idf:N
+	 * @param policy
+	 * @return
+	 */
+	public static KeywordHubPolicy parse(String policy) {
+		String[] parts = policy.trim().split(SEPARATOR);
+		Mode mode = Mode.valueOf(parts[0].toUpperCase());
+		if (mode == Mode.NONE) {
+			return NONE;
+		}
+		if (parts.length < 2 || parts.length > (mode == Mode.SAMPLE ? 3 : 2)) {
+			throw new IllegalArgumentException("Expected none, cap:N, sample:N[:seed] or idf:N but got " + policy);
+		}
+		long seed = parts.length == 3 ? Long.parseLong(parts[2]) : DEFAULT_SEED;
+		return new KeywordHubPolicy(mode, Integer.parseInt(parts[1]), seed);
+	}
+
+	/**
+	 * Restricts the authors of every hub keyword, for CAP and SAMPLE
+	 * @param graph
+	 * @return a graph with the same nodes and the kept edges, or the graph
+	 * itself if the policy removes no edges
+	 */
+	public AuthorKeywordGraph restrictFanOut(AuthorKeywordGraph graph) {
+		if (mode != Mode.CAP && mode != Mode.SAMPLE) {
+			return graph;
+		}
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int[] keptOffsets = new int[offsets.length];
+		int[] keptNeighbors = new int[neighbors.length];
+		int keptEdges = 0;
+		long removedEdges = 0;
+		int hubCount = 0;
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			keptOffsets[node] = keptEdges;
+			int degree = graph.getDegree(node);
+			if (graph.isAuthor(node) || degree <= maxFanOut) {
+				System.arraycopy(neighbors, offsets[node], keptNeighbors, keptEdges, degree);
+				keptEdges += degree;
+				continue;
+			}
+			int[] kept = mode == Mode.CAP ? null : sampleIndexes(degree, new Random(seed ^ graph.getName(node).hashCode()));
+			for (int i = 0; i < maxFanOut; i++) {
+				keptNeighbors[keptEdges++] = neighbors[offsets[node] + (kept == null ? i : kept[i])];
+			}
+			removedEdges += degree - maxFanOut;
+			++hubCount;
+		}
+		keptOffsets[graph.getNodeCount()] = keptEdges;
+		log.info("The hub policy " + this + " removed " + removedEdges + " of " + graph.getEdgeCount() + " edges from " +
+				hubCount + " hub keywords");
+		if (hubCount == 0) {
+			return graph;
+		}
+		return new AuthorKeywordGraph(graph, keptOffsets, Arrays.copyOf(keptNeighbors, keptEdges));
+	}
+
+	/**
+	 * Picks maxFanOut of the indexes [0, degree) with a partial Fisher-Yates
+	 * shuffle, and sorts them so the kept authors stay in adjacency order
+	 */
+	private int[] sampleIndexes(int degree, Random random) {
+		int[] indexes = new int[degree];
+		for (int i = 0; i < degree; i++) {
+			indexes[i] = i;
+		}
+		for (int i = 0; i < maxFanOut; i++) {
+			int j = i + random.nextInt(degree - i);
+			int index = indexes[i];
+			indexes[i] = indexes[j];
+			indexes[j] = index;
+		}
+		int[] kept = Arrays.copyOf(indexes, maxFanOut);
+		Arrays.sort(kept);
+		return kept;
+	}
+
+	/**
+	 * Scales down the weights of hub keywords, for IDF
+	 * @param graph
+	 * @param keywordWeights - by node ID
+	 * @param threshold - the keyword weightage threshold, to report the keywords it removes
+	 * @return the scaled weights, or the weights themselves if the policy does not scale them
+	 */
+	public double[] weightKeywords(AuthorKeywordGraph graph, double[] keywordWeights, double threshold) {
+		if (mode != Mode.IDF) {
+			return keywordWeights;
+		}
+		double[] scaledWeights = keywordWeights.clone();
+		double authorCount = graph.getAuthorCount();
+		double referenceIdf = Math.log(authorCount / maxFanOut);
+		int hubCount = 0;
+		int removedKeywordCount = 0;
+		long removedEdges = 0;
+		for (int kw = graph.getAuthorCount(); kw < graph.getNodeCount(); kw++) {
+			int degree = graph.getDegree(kw);
+			if (degree <= maxFanOut) {
+				continue;
+			}
+			double scale = referenceIdf > 0.0 ? Math.max(0.0, Math.log(authorCount / degree) / referenceIdf) : 0.0;
+			scaledWeights[kw] = keywordWeights[kw] * scale;
+			++hubCount;
+			if (keywordWeights[kw] >= threshold && scaledWeights[kw] < threshold) {
+				++removedKeywordCount;
+				removedEdges += degree;
+			}
+		}
+		log.info("The hub policy " + this + " scaled down the weights of " + hubCount + " hub keywords, which took " +
+				removedKeywordCount + " keywords and " + removedEdges + " of their edges under the keyword threshold");
+		return scaledWeights;
+	}
+
+	/**
+	 * @param fullGraph - the graph before the policy
+	 * @param graph - the graph after the policy
+	 * @return how many authors of every node the policy removed, by node ID
+	 */
+	public static int[] computeRemovedFanOuts(AuthorKeywordGraph fullGraph, AuthorKeywordGraph graph) {
+		int[] removedFanOuts = new int[graph.getNodeCount()];
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			removedFanOuts[node] = fullGraph.getDegree(node) - graph.getDegree(node);
+		}
+		return removedFanOuts;
+	}
+
+	/** GETTER **/
+	public Mode getMode() {
+		return mode;
+	}
+
+	/** GETTER **/
+	public int getMaxFanOut() {
+		return maxFanOut;
+	}
+
+	/** GETTER **/
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public String toString() {
+		switch (mode) {
+		case NONE:
+			return "none";
+		case SAMPLE:
+			return "sample" + SEPARATOR + maxFanOut + SEPARATOR + seed;
+		default:
+			return mode.name().toLowerCase() + SEPARATOR + maxFanOut;
+		}
+	}
+}
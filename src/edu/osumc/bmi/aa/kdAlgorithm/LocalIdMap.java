@@ -0,0 +1,104 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+
+/**
+ * Hands out the local IDs of a paths file: the node IDs of the graph are
+ * numbered in the order they first show up in the file. The local IDs live
+ * in an open addressing table of primitive ints with linear probing, like
+ * the counts of EndpointCounter, so the memory grows with the number of
+ * distinct nodes the file uses, not with the number of nodes in the graph.
+ * Node IDs are never negative, so an empty slot holds -1
+ */
+public class LocalIdMap {
+
+	private static final int EMPTY = -1;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int[] keys;
+	private int[] values;
+	private int[] nodes = new int[INITIAL_CAPACITY];
+	private int size = 0;
+
+	public LocalIdMap() {
+		keys = new int[INITIAL_CAPACITY];
+		values = new int[INITIAL_CAPACITY];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * @return the number of local IDs handed out
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param node
+	 * @return the local ID of a node, handing out the next one if the node is new
+	 */
+	public int intern(int node) {
+		int slot = findSlot(keys, node);
+		if (keys[slot] == EMPTY) {
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, 2 * size);
+			}
+			nodes[size] = node;
+			keys[slot] = node;
+			values[slot] = size;
+			if (++size > (keys.length >>> 1) + (keys.length >>> 2)) {
+				grow();
+			}
+			return size - 1;
+		}
+		return values[slot];
+	}
+
+	/**
+	 * @param localId
+	 * @return the node ID a local ID was handed out for
+	 */
+	public int getNode(int localId) {
+		return nodes[localId];
+	}
+
+	/**
+	 * Finds the slot holding a node, or the empty slot where it would go
+	 * @param table
+	 * @param node
+	 * @return
+	 */
+	private static int findSlot(int[] table, int node) {
+		int mask = table.length - 1;
+		int slot = mix(node) & mask;
+		while (table[slot] != EMPTY && table[slot] != node) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Spreads the bits of consecutive node IDs across the table
+	 * @param node
+	 * @return
+	 */
+	private static int mix(int node) {
+		int h = node * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[oldKeys.length << 1];
+		values = new int[oldKeys.length << 1];
+		Arrays.fill(keys, EMPTY);
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldKeys[slot] != EMPTY) {
+				int newSlot = findSlot(keys, oldKeys[slot]);
+				keys[newSlot] = oldKeys[slot];
+				values[newSlot] = oldValues[slot];
+			}
+		}
+	}
+}
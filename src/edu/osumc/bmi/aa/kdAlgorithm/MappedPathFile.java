@@ -0,0 +1,228 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A paths file in one of the compact formats, memory-mapped for reading.
+ *
+ * A single mapping cannot be larger than Integer.MAX_VALUE bytes, and the
+ * biggest paths files are larger than that, so the file is mapped in
+ * windows of 1 << WINDOW_SHIFT bytes and every offset is a long. A value
+ * may straddle two windows, so values are read a byte at a time.
+ *
+ * Both formats end with the same dictionary of names, which is indexed here
+ * without decoding a name until it is asked for.
+ */
+public class MappedPathFile implements Closeable {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	public static final int WINDOW_SHIFT = 30;
+
+	private RandomAccessFile file;
+	private MappedByteBuffer[] windows;
+	private int windowShift;
+	private long windowMask;
+	private long size;
+
+	private long[] nameOffsets = new long[0];
+	private int[] nameLengths = new int[0];
+
+	public MappedPathFile(File pathsFile) throws IOException {
+		this(pathsFile, WINDOW_SHIFT);
+	}
+
+	/**
+	 * @param pathsFile
+	 * @param windowShift - the log2 of the bytes in a window
+	 * @throws IOException
+	 */
+	MappedPathFile(File pathsFile, int windowShift) throws IOException {
+		this.windowShift = windowShift;
+		windowMask = (1L << windowShift) - 1;
+		file = new RandomAccessFile(pathsFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			size = channel.size();
+			windows = new MappedByteBuffer[(int) ((size + windowMask) >>> windowShift)];
+			for (int i = 0; i < windows.length; i++) {
+				long start = (long) i << windowShift;
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowMask + 1, size - start));
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/** GETTER **/
+	public long size() {
+		return size;
+	}
+
+	public byte get(long offset) {
+		return windows[(int) (offset >>> windowShift)].get((int) (offset & windowMask));
+	}
+
+	public short getShort(long offset) {
+		return (short) (((get(offset) & 0xff) << 8) | (get(offset + 1) & 0xff));
+	}
+
+	public int getInt(long offset) {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = (value << 8) | (get(offset + i) & 0xff);
+		}
+		return value;
+	}
+
+	public long getLong(long offset) {
+		return ((long) getInt(offset) << 32) | (getInt(offset + 4) & 0xffffffffL);
+	}
+
+	/**
+	 * Notes where every name of the dictionary is, without decoding it
+	 * @param offset - where the dictionary starts
+	 * @param nameCount - the number of names the trailer promises
+	 */
+	public void indexDictionary(long offset, int nameCount) {
+		Input dictionary = input(offset, size);
+		if (dictionary.getVarint() != nameCount) {
+			throw new IllegalStateException("Corrupt dictionary in paths file");
+		}
+		nameOffsets = new long[nameCount];
+		nameLengths = new int[nameCount];
+		for (int i = 0; i < nameCount; i++) {
+			nameLengths[i] = dictionary.getVarint();
+			nameOffsets[i] = dictionary.position();
+			dictionary.position(nameOffsets[i] + nameLengths[i]);
+		}
+	}
+
+	/** GETTER **/
+	public int getNameCount() {
+		return nameOffsets.length;
+	}
+
+	/**
+	 * Decodes the name of a local ID
+	 * @param localId
+	 * @return
+	 */
+	public String getName(int localId) {
+		byte[] bytes = new byte[nameLengths[localId]];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = get(nameOffsets[localId] + i);
+		}
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * Looks a name up by comparing bytes against the dictionary
+	 * @param name
+	 * @return the local ID of the name, or -1 if no path in the file uses it
+	 */
+	public int findName(String name) {
+		byte[] bytes = name.getBytes(UTF8);
+		for (int i = 0; i < nameOffsets.length; i++) {
+			if (nameLengths[i] == bytes.length && matches(nameOffsets[i], bytes)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private boolean matches(long offset, byte[] bytes) {
+		for (int j = 0; j < bytes.length; j++) {
+			if (get(offset + j) != bytes[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param position - the offset of the first byte to read
+	 * @param limit - the offset just past the last byte to read
+	 * @return a sequential reader over part of the file
+	 */
+	public Input input(long position, long limit) {
+		return new Input(position, limit);
+	}
+
+	@Override
+	public void close() throws IOException {
+		windows = new MappedByteBuffer[0];
+		file.close();
+	}
+
+	/**
+	 * Reads part of the file in order, like a ByteBuffer with long positions.
+	 * The window being read is kept at hand, so reading a byte only looks
+	 * the window up again when it crosses into the next one
+	 */
+	public class Input {
+		private long position;
+		private long limit;
+		private MappedByteBuffer window = null;
+		private int windowIndex = -1;
+
+		private Input(long position, long limit) {
+			this.position = position;
+			this.limit = limit;
+		}
+
+		/** GETTER **/
+		public long position() {
+			return position;
+		}
+
+		/** SETTER **/
+		public void position(long position) {
+			this.position = position;
+		}
+
+		public boolean hasRemaining() {
+			return position < limit;
+		}
+
+		public byte get() {
+			int index = (int) (position >>> windowShift);
+			if (index != windowIndex) {
+				window = windows[index];
+				windowIndex = index;
+			}
+			return window.get((int) (position++ & windowMask));
+		}
+
+		public int getInt() {
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				value = (value << 8) | (get() & 0xff);
+			}
+			return value;
+		}
+
+		public float getFloat() {
+			return Float.intBitsToFloat(getInt());
+		}
+
+		public int getVarint() {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = get();
+				value |= (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+}
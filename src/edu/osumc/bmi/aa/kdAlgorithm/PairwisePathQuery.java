@@ -0,0 +1,343 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the paths between two chosen authors without enumerating every path
+ * out of either of them, by searching from both ends and meeting in the middle.
+ *
+ * For D degrees of separation, the half paths of ceil(D/2) hops out of the
+ * first author and of floor(D/2) hops into the second author are collected,
+ * and every pair of halves that ends at the same middle author is joined.
+ * Both halves follow the rules PathFinder applies to a path: keywords must
+ * be usable and may not repeat, authors in between must be extensible and
+ * may not repeat, and in divergent mode no two keywords may come from the
+ * same hierarchy. A join is only kept if the two halves share nothing but
+ * the middle author, their keywords do not conflict, and the metric of the
+ * whole path, which adds the distance between the two keywords next to the
+ * middle author, reaches the path weightage threshold. Halves that cannot
+ * reach the threshold even with the best possible remaining hops are pruned
+ * as they are built.
+ *
+ * The paths are edges in the direction PathFinder walks them, so the half
+ * into the second author walks the edges of the graph backwards.
+ */
+public class PairwisePathQuery {
+
+	private static final String COMMA = ",";
+
+	private AuthorKeywordGraph graph;
+	private boolean[] authorIsExtensible;
+	private boolean[] keywordIsUsable;
+	private double[] keywordWeights;
+	private int[] keywordHeadingIds;
+	private int[][] headingDistances;
+	private int[] keywordHierarchyMasks;
+	private int[] keywordConflictMasks;
+	private double maxMetricPerHop;
+
+	/**
+	 * The edges ending at every node, in the CSR layout of the graph
+	 */
+	private int[] edgeSources;
+	private int[] incomingOffsets;
+	private int[] incomingEdges;
+
+	private boolean[] onPath;
+	private int[] pathStack;
+	private int pathLength;
+
+	/**
+	 * The half paths of one side, stored flat: the nodes of half i are
+	 * halfNodes[i * stride] ... halfNodes[i * stride + stride - 1], starting
+	 * from the author the side started from
+	 */
+	private static class HalfPaths {
+		private int stride;
+		private int count = 0;
+		private int[] halfNodes;
+		private double[] metrics;
+		private int[] hierarchies;
+		private int[] conflicts;
+
+		private HalfPaths(int hops) {
+			stride = 2 * hops + 1;
+			halfNodes = new int[16 * stride];
+			metrics = new double[16];
+			hierarchies = new int[16];
+			conflicts = new int[16];
+		}
+
+		private void add(int[] nodes, double metric, int hierarchy, int conflict) {
+			if (count == metrics.length) {
+				halfNodes = Arrays.copyOf(halfNodes, 2 * halfNodes.length);
+				metrics = Arrays.copyOf(metrics, 2 * count);
+				hierarchies = Arrays.copyOf(hierarchies, 2 * count);
+				conflicts = Arrays.copyOf(conflicts, 2 * count);
+			}
+			System.arraycopy(nodes, 0, halfNodes, count * stride, stride);
+			metrics[count] = metric;
+			hierarchies[count] = hierarchy;
+			conflicts[count] = conflict;
+			++count;
+		}
+
+		private int middle(int i) {
+			return halfNodes[i * stride + stride - 1];
+		}
+	}
+
+	/**
+	 * @param graph
+	 * @param authorIsExtensible
+	 * @param keywordIsUsable
+	 * @param keywordWeights
+	 * @param keywordHeadingIds
+	 * @param headingDistances
+	 * @param keywordHierarchyMasks - null unless the search is divergent
+	 * @param keywordConflictMasks - null unless the search is divergent
+	 * @param maxMetricPerHop - the most a hop can add to the metric of a path
+	 */
+	public PairwisePathQuery(AuthorKeywordGraph graph, boolean[] authorIsExtensible,
+			boolean[] keywordIsUsable, double[] keywordWeights, int[] keywordHeadingIds,
+			int[][] headingDistances, int[] keywordHierarchyMasks, int[] keywordConflictMasks,
+			double maxMetricPerHop) {
+		this.graph = graph;
+		this.authorIsExtensible = authorIsExtensible;
+		this.keywordIsUsable = keywordIsUsable;
+		this.keywordWeights = keywordWeights;
+		this.keywordHeadingIds = keywordHeadingIds;
+		this.headingDistances = headingDistances;
+		this.keywordHierarchyMasks = keywordHierarchyMasks;
+		this.keywordConflictMasks = keywordConflictMasks;
+		this.maxMetricPerHop = maxMetricPerHop;
+		onPath = new boolean[graph.getNodeCount()];
+		indexIncomingEdges();
+	}
+
+	private void indexIncomingEdges() {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int nodeCount = graph.getNodeCount();
+		edgeSources = new int[neighbors.length];
+		incomingOffsets = new int[nodeCount + 1];
+		incomingEdges = new int[neighbors.length];
+		for (int node = 0; node < nodeCount; node++) {
+			for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+				edgeSources[edge] = node;
+				incomingOffsets[neighbors[edge] + 1]++;
+			}
+		}
+		for (int node = 0; node < nodeCount; node++) {
+			incomingOffsets[node + 1] += incomingOffsets[node];
+		}
+		int[] fill = Arrays.copyOf(incomingOffsets, nodeCount);
+		for (int edge = 0; edge < neighbors.length; edge++) {
+			incomingEdges[fill[neighbors[edge]]++] = edge;
+		}
+	}
+
+	/**
+	 * Finds the paths from one author to another
+	 * @param fromAuthor
+	 * @param toAuthor
+	 * @param degreesOfSeparation - the number of keywords on every path
+	 * @param pathWeightageThreshold
+	 * @return the paths as PathFinder writes them, metric,author,keyword,...,author,
+	 * from the highest metric down
+	 */
+	public synchronized List<String> findPaths(String fromAuthor, String toAuthor,
+			int degreesOfSeparation, double pathWeightageThreshold) {
+		int from = graph.getAuthorId(fromAuthor);
+		int to = graph.getAuthorId(toAuthor);
+		final List<String> paths = new ArrayList<String>();
+		if (from < 0 || to < 0 || from == to || degreesOfSeparation < 1) {
+			return paths;
+		}
+		int forwardHops = (degreesOfSeparation + 1) / 2;
+		int backwardHops = degreesOfSeparation - forwardHops;
+		pathStack = new int[2 * degreesOfSeparation + 1];
+
+		HalfPaths forward = new HalfPaths(forwardHops);
+		collectHalfPaths(forward, from, to, forwardHops, degreesOfSeparation, pathWeightageThreshold, true, backwardHops == 0);
+		HalfPaths backward = new HalfPaths(backwardHops);
+		collectHalfPaths(backward, to, from, backwardHops, degreesOfSeparation, pathWeightageThreshold, false, false);
+
+		// group the forward halves by their middle author
+		int[] middleOffsets = new int[graph.getAuthorCount() + 1];
+		for (int i = 0; i < forward.count; i++) {
+			middleOffsets[forward.middle(i) + 1]++;
+		}
+		for (int author = 0; author < graph.getAuthorCount(); author++) {
+			middleOffsets[author + 1] += middleOffsets[author];
+		}
+		int[] byMiddle = new int[forward.count];
+		int[] fill = Arrays.copyOf(middleOffsets, graph.getAuthorCount());
+		for (int i = 0; i < forward.count; i++) {
+			byMiddle[fill[forward.middle(i)]++] = i;
+		}
+
+		final List<Double> metrics = new ArrayList<Double>();
+		int[] path = new int[2 * degreesOfSeparation + 1];
+		for (int b = 0; b < backward.count; b++) {
+			int middle = backward.middle(b);
+			int backwardStart = b * backward.stride;
+			for (int j = middleOffsets[middle]; j < middleOffsets[middle + 1]; j++) {
+				int f = byMiddle[j];
+				if (!canJoin(forward, f, backward, b)) {
+					continue;
+				}
+				System.arraycopy(forward.halfNodes, f * forward.stride, path, 0, forward.stride);
+				for (int k = 1; k < backward.stride; k++) {
+					path[forward.stride - 1 + k] = backward.halfNodes[backwardStart + backward.stride - 1 - k];
+				}
+				double metric = computeMetric(path);
+				if (metric >= pathWeightageThreshold) {
+					StringBuilder line = new StringBuilder();
+					line.append(metric);
+					for (int node : path) {
+						line.append(COMMA).append(graph.getName(node));
+					}
+					paths.add(line.toString());
+					metrics.add(metric);
+				}
+			}
+		}
+		return sortByMetric(paths, metrics);
+	}
+
+	/**
+	 * Two halves can be joined if they share no node besides the middle
+	 * author and, in divergent mode, none of their keywords conflict
+	 */
+	private boolean canJoin(HalfPaths forward, int f, HalfPaths backward, int b) {
+		if (keywordHierarchyMasks != null && (forward.hierarchies[f] & backward.conflicts[b]) != 0) {
+			return false;
+		}
+		int backwardStart = b * backward.stride;
+		for (int k = 0; k < backward.stride - 1; k++) {
+			onPath[backward.halfNodes[backwardStart + k]] = true;
+		}
+		boolean isDisjoint = true;
+		int forwardStart = f * forward.stride;
+		for (int k = 0; k < forward.stride - 1 && isDisjoint; k++) {
+			isDisjoint = !onPath[forward.halfNodes[forwardStart + k]];
+		}
+		for (int k = 0; k < backward.stride - 1; k++) {
+			onPath[backward.halfNodes[backwardStart + k]] = false;
+		}
+		return isDisjoint;
+	}
+
+	/**
+	 * Computes the metric of a whole path in the order PathFinder accumulates it,
+	 * so that the metrics come out the same to the last digit
+	 */
+	private double computeMetric(int[] path) {
+		double metric = 0.0;
+		int previousKw = -1;
+		for (int i = 1; i < path.length; i += 2) {
+			int kw = path[i];
+			metric = metric + keywordWeights[kw];
+			if (previousKw >= 0) {
+				metric += headingDistances[keywordHeadingIds[kw]][keywordHeadingIds[previousKw]];
+			}
+			previousKw = kw;
+		}
+		return metric;
+	}
+
+	private List<String> sortByMetric(final List<String> paths, final List<Double> metrics) {
+		Integer[] order = new Integer[paths.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				int byMetric = Double.compare(metrics.get(i2), metrics.get(i1));
+				return byMetric != 0 ? byMetric : paths.get(i1).compareTo(paths.get(i2));
+			}
+		});
+		List<String> sortedPaths = new ArrayList<String>(order.length);
+		for (int i : order) {
+			sortedPaths.add(paths.get(i));
+		}
+		return Collections.unmodifiableList(sortedPaths);
+	}
+
+	/**
+	 * Collects the half paths of one side with a depth first search
+	 * @param halves
+	 * @param start - the author the side starts from
+	 * @param otherEnd - the author at the other end of the query
+	 * @param hops
+	 * @param degreesOfSeparation
+	 * @param pathWeightageThreshold
+	 * @param isForward - whether edges are walked forwards or backwards
+	 * @param mustEndAtOtherEnd - whether the half reaches all the way to the other end
+	 */
+	private void collectHalfPaths(HalfPaths halves, int start, int otherEnd, int hops, int degreesOfSeparation,
+			double pathWeightageThreshold, boolean isForward, boolean mustEndAtOtherEnd) {
+		pathLength = 0;
+		pathStack[pathLength++] = start;
+		onPath[start] = true;
+		extendHalfPath(halves, otherEnd, 0, hops, degreesOfSeparation, pathWeightageThreshold,
+				isForward, mustEndAtOtherEnd, 0.0, -1, 0, 0);
+		onPath[start] = false;
+	}
+
+	private void extendHalfPath(HalfPaths halves, int otherEnd, int hop, int hops, int degreesOfSeparation,
+			double pathWeightageThreshold, boolean isForward, boolean mustEndAtOtherEnd,
+			double metric, int previousKw, int hierarchies, int conflicts) {
+		if (hop == hops) {
+			halves.add(pathStack, metric, hierarchies, conflicts);
+			return;
+		}
+		int author = pathStack[pathLength - 1];
+		int first = isForward ? graph.getOffsets()[author] : incomingOffsets[author];
+		int last = isForward ? graph.getOffsets()[author + 1] : incomingOffsets[author + 1];
+		for (int i = first; i < last; i++) {
+			int kw = isForward ? graph.getNeighbors()[i] : edgeSources[incomingEdges[i]];
+			if (!keywordIsUsable[kw] || onPath[kw]) {
+				continue;
+			}
+			if (keywordHierarchyMasks != null && (hierarchies & keywordConflictMasks[kw]) != 0) {
+				continue;
+			}
+			double extendedMetric = metric + keywordWeights[kw];
+			if (previousKw >= 0) {
+				extendedMetric += headingDistances[keywordHeadingIds[kw]][keywordHeadingIds[previousKw]];
+			}
+			if (extendedMetric + (degreesOfSeparation - hop - 1) * maxMetricPerHop < pathWeightageThreshold) {
+				continue;
+			}
+			int extendedHierarchies = keywordHierarchyMasks == null ? 0 : hierarchies | keywordHierarchyMasks[kw];
+			int extendedConflicts = keywordHierarchyMasks == null ? 0 : conflicts | keywordConflictMasks[kw];
+			pathStack[pathLength++] = kw;
+			onPath[kw] = true;
+			int kwFirst = isForward ? graph.getOffsets()[kw] : incomingOffsets[kw];
+			int kwLast = isForward ? graph.getOffsets()[kw + 1] : incomingOffsets[kw + 1];
+			for (int j = kwFirst; j < kwLast; j++) {
+				int nextAuthor = isForward ? graph.getNeighbors()[j] : edgeSources[incomingEdges[j]];
+				boolean isLastHop = hop + 1 == hops;
+				boolean isValid = (mustEndAtOtherEnd && isLastHop) ? nextAuthor == otherEnd
+						: authorIsExtensible[nextAuthor] && nextAuthor != otherEnd;
+				if (isValid && !onPath[nextAuthor]) {
+					pathStack[pathLength++] = nextAuthor;
+					onPath[nextAuthor] = true;
+					extendHalfPath(halves, otherEnd, hop + 1, hops, degreesOfSeparation, pathWeightageThreshold,
+							isForward, mustEndAtOtherEnd, extendedMetric, kw, extendedHierarchies, extendedConflicts);
+					onPath[nextAuthor] = false;
+					--pathLength;
+				}
+			}
+			onPath[kw] = false;
+			--pathLength;
+		}
+	}
+}
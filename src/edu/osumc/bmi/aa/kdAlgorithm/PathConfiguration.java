@@ -0,0 +1,74 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+/**
+ * One combination of the thresholds that decide which paths PathFinder
+ * writes out: the keyword weightage threshold (KWWT), the path weightage
+ * threshold (PWT) and the degrees of separation (DOS).
+ * Every configuration has its own output directory, named after the
+ * thresholds, e.g. KWWT-1.25-PWT-35.0-DOS-5
+ */
+public class PathConfiguration {
+
+	private static final String SEPARATOR = ":";
+
+	private double keywordWeightageThreshold;
+	private double pathWeightageThreshold;
+	private int degreesOfSeparation;
+
+	public PathConfiguration(double keywordWeightageThreshold,
+			double pathWeightageThreshold, int degreesOfSeparation) {
+		this.keywordWeightageThreshold = keywordWeightageThreshold;
+		this.pathWeightageThreshold = pathWeightageThreshold;
+		this.degreesOfSeparation = degreesOfSeparation;
+	}
+
+	/**
+	 * Parses a configuration written as KWWT:PWT:DOS, for example 1.75:35.0:5
+	 * @param configuration
+	 * @return
+	 */
+	public static PathConfiguration parse(String configuration) {
+		String[] thresholds = configuration.trim().split(SEPARATOR);
+		if (thresholds.length != 3) {
+			throw new IllegalArgumentException("Expected KWWT:PWT:DOS but got " + configuration);
+		}
+		return new PathConfiguration(Double.parseDouble(thresholds[0]),
+				Double.parseDouble(thresholds[1]), Integer.parseInt(thresholds[2]));
+	}
+
+	/**
+	 * @param dosCount - the degrees of separation of the path
+	 * @param minKeywordWeight - the weight of the lightest keyword on the path
+	 * @param pathMetric
+	 * @return true if the path belongs in the output of this configuration
+	 */
+	public boolean accepts(int dosCount, double minKeywordWeight, double pathMetric) {
+		return dosCount == degreesOfSeparation && minKeywordWeight >= keywordWeightageThreshold
+				&& pathMetric >= pathWeightageThreshold;
+	}
+
+	public String getDirectoryName() {
+		return "KWWT-" + keywordWeightageThreshold + "-PWT-" + pathWeightageThreshold
+				+ "-DOS-" + degreesOfSeparation;
+	}
+
+	/** GETTER **/
+	public double getKeywordWeightageThreshold() {
+		return keywordWeightageThreshold;
+	}
+
+	/** GETTER **/
+	public double getPathWeightageThreshold() {
+		return pathWeightageThreshold;
+	}
+
+	/** GETTER **/
+	public int getDegreesOfSeparation() {
+		return degreesOfSeparation;
+	}
+
+	@Override
+	public String toString() {
+		return getDirectoryName();
+	}
+}
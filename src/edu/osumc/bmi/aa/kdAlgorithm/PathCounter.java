@@ -0,0 +1,256 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+
+/**
+ * Counts the paths of every length between a root author and every other
+ * author, without enumerating them, by dynamic programming over the edges
+ * of the author-keyword graph.
+ *
+ * The count kept for an edge is the number of partial paths that start at
+ * the root and end by walking that edge. One hop of the path moves the
+ * counts through a keyword and then through an author, so every level costs
+ * a single pass over the edges no matter how many paths there are.
+ *
+ * Counting simple paths exactly is #P-hard, so the counts are those of the
+ * walks that obey the rules PathFinder applies to consecutive nodes:
+ * a) keywords must be usable and authors extensible and not finished with,
+ * b) a walk never turns straight back, i.e. author-keyword-author and
+ * keyword-author-keyword repeat neither node, and c) in divergent mode two
+ * consecutive keywords never come from conflicting hierarchies.
+ * Revisits further apart, divergence between keywords further apart and the
+ * path weightage threshold are not tracked, so the counts are upper bounds
+ * on the number of paths PathFinder would print.
+ */
+public class PathCounter {
+
+	private AuthorKeywordGraph graph;
+	private boolean[] authorIsExtensible;
+	private boolean[] authorsFinishedWith;
+	private boolean[] keywordIsUsable;
+	private int[] keywordHierarchyMasks;
+	private int[] keywordConflictMasks;
+	private int degreesOfSeparation;
+
+	/**
+	 * The node each edge starts from, and for every node the positions of the
+	 * edges that end at it, in the same CSR layout as the graph itself
+	 */
+	private int[] edgeSources;
+	private int[] incomingOffsets;
+	private int[] incomingEdges;
+
+	private long[] walks;
+	private long[] nextWalks;
+	private long[] walksFromNode;
+	private long[] walksByHierarchy = new long[Integer.SIZE];
+	private long[][] counts;
+
+	/**
+	 * @param graph
+	 * @param authorIsExtensible
+	 * @param authorsFinishedWith - read on every count, so authors finished
+	 * with later on are respected
+	 * @param keywordIsUsable
+	 * @param keywordHierarchyMasks - null unless the search is divergent
+	 * @param keywordConflictMasks - null unless the search is divergent
+	 * @param degreesOfSeparation
+	 */
+	public PathCounter(AuthorKeywordGraph graph, boolean[] authorIsExtensible,
+			boolean[] authorsFinishedWith, boolean[] keywordIsUsable,
+			int[] keywordHierarchyMasks, int[] keywordConflictMasks,
+			int degreesOfSeparation) {
+		this.graph = graph;
+		this.authorIsExtensible = authorIsExtensible;
+		this.authorsFinishedWith = authorsFinishedWith;
+		this.keywordIsUsable = keywordIsUsable;
+		this.keywordHierarchyMasks = keywordHierarchyMasks;
+		this.keywordConflictMasks = keywordConflictMasks;
+		this.degreesOfSeparation = degreesOfSeparation;
+		indexIncomingEdges();
+		walks = new long[graph.getEdgeCount()];
+		nextWalks = new long[graph.getEdgeCount()];
+		walksFromNode = new long[graph.getNodeCount()];
+		counts = new long[degreesOfSeparation][graph.getAuthorCount()];
+	}
+
+	/**
+	 * Transposes the CSR arrays of the graph, so that the edges ending at a
+	 * node can be visited as quickly as the edges starting from it
+	 */
+	private void indexIncomingEdges() {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int nodeCount = graph.getNodeCount();
+		edgeSources = new int[neighbors.length];
+		incomingOffsets = new int[nodeCount + 1];
+		incomingEdges = new int[neighbors.length];
+		for (int node = 0; node < nodeCount; node++) {
+			for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+				edgeSources[edge] = node;
+				incomingOffsets[neighbors[edge] + 1]++;
+			}
+		}
+		for (int node = 0; node < nodeCount; node++) {
+			incomingOffsets[node + 1] += incomingOffsets[node];
+		}
+		int[] fill = Arrays.copyOf(incomingOffsets, nodeCount);
+		for (int edge = 0; edge < neighbors.length; edge++) {
+			incomingEdges[fill[neighbors[edge]]++] = edge;
+		}
+	}
+
+	/**
+	 * Counts the paths from the root author to every author, by level.
+	 * The array returned is reused by the next call
+	 * @param rootAuthor
+	 * @return counts[dos - 1][author] is the number of paths with dos
+	 * degrees of separation from the root author to the author
+	 */
+	public long[][] countPathsFromAuthor(int rootAuthor) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		Arrays.fill(walks, 0);
+		for (int edge = offsets[rootAuthor]; edge < offsets[rootAuthor + 1]; edge++) {
+			if (keywordIsUsable[neighbors[edge]]) {
+				walks[edge] = 1;
+			}
+		}
+		for (int level = 0; level < degreesOfSeparation; level++) {
+			if (level > 0) {
+				advance(0, graph.getAuthorCount());
+			}
+			advance(graph.getAuthorCount(), graph.getNodeCount());
+			Arrays.fill(counts[level], 0);
+			for (int edge = offsets[graph.getAuthorCount()]; edge < neighbors.length; edge++) {
+				counts[level][neighbors[edge]] = add(counts[level][neighbors[edge]], walks[edge]);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Moves the walks ending at the nodes in [fromNode, toNode) one edge on
+	 * @param fromNode
+	 * @param toNode
+	 */
+	private void advance(int fromNode, int toNode) {
+		Arrays.fill(nextWalks, 0);
+		for (int node = fromNode; node < toNode; node++) {
+			if (graph.isKeyword(node)) {
+				advanceThroughKeyword(node);
+			} else if (keywordHierarchyMasks == null) {
+				advanceThroughAuthor(node);
+			} else {
+				advanceThroughAuthorDivergently(node);
+			}
+		}
+		long[] swap = walks;
+		walks = nextWalks;
+		nextWalks = swap;
+	}
+
+	/**
+	 * Hands the walks arriving at a keyword on to its valid authors,
+	 * except to the author each walk just came from
+	 * @param kw
+	 */
+	private void advanceThroughKeyword(int kw) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		long total = collectIncomingWalks(kw);
+		if (total > 0) {
+			for (int edge = offsets[kw]; edge < offsets[kw + 1]; edge++) {
+				int nextAuthor = neighbors[edge];
+				if (authorIsExtensible[nextAuthor] && !authorsFinishedWith[nextAuthor]) {
+					nextWalks[edge] = subtract(total, walksFromNode[nextAuthor]);
+				}
+			}
+		}
+		clearIncomingWalks(kw);
+	}
+
+	/**
+	 * Hands the walks arriving at an author on to its usable keywords,
+	 * except to the keyword each walk just came from
+	 * @param author
+	 */
+	private void advanceThroughAuthor(int author) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		long total = collectIncomingWalks(author);
+		if (total > 0) {
+			for (int edge = offsets[author]; edge < offsets[author + 1]; edge++) {
+				int kw = neighbors[edge];
+				if (keywordIsUsable[kw]) {
+					nextWalks[edge] = subtract(total, walksFromNode[kw]);
+				}
+			}
+		}
+		clearIncomingWalks(author);
+	}
+
+	/**
+	 * The divergent version of advanceThroughAuthor. The arriving walks are
+	 * summed up by the hierarchy of the keyword they came from, and a keyword
+	 * only takes the walks from hierarchies it does not conflict with. A
+	 * keyword always conflicts with its own hierarchy, so no walk turns back
+	 * @param author
+	 */
+	private void advanceThroughAuthorDivergently(int author) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		for (int i = incomingOffsets[author]; i < incomingOffsets[author + 1]; i++) {
+			int edge = incomingEdges[i];
+			int bit = Integer.numberOfTrailingZeros(keywordHierarchyMasks[edgeSources[edge]]);
+			walksByHierarchy[bit] = add(walksByHierarchy[bit], walks[edge]);
+		}
+		for (int edge = offsets[author]; edge < offsets[author + 1]; edge++) {
+			int kw = neighbors[edge];
+			if (keywordIsUsable[kw]) {
+				long total = 0;
+				for (int bit = 0; bit < Integer.SIZE; bit++) {
+					if ((keywordConflictMasks[kw] & (1 << bit)) == 0) {
+						total = add(total, walksByHierarchy[bit]);
+					}
+				}
+				nextWalks[edge] = total;
+			}
+		}
+		Arrays.fill(walksByHierarchy, 0);
+	}
+
+	/**
+	 * Notes how many walks arrive at the node from each of its sources
+	 * @param node
+	 * @return the number of walks arriving at the node
+	 */
+	private long collectIncomingWalks(int node) {
+		long total = 0;
+		for (int i = incomingOffsets[node]; i < incomingOffsets[node + 1]; i++) {
+			int edge = incomingEdges[i];
+			walksFromNode[edgeSources[edge]] = walks[edge];
+			total = add(total, walks[edge]);
+		}
+		return total;
+	}
+
+	private void clearIncomingWalks(int node) {
+		for (int i = incomingOffsets[node]; i < incomingOffsets[node + 1]; i++) {
+			walksFromNode[edgeSources[incomingEdges[i]]] = 0;
+		}
+	}
+
+	/**
+	 * Counts grow exponentially with the degrees of separation, so they
+	 * saturate at Long.MAX_VALUE instead of overflowing
+	 */
+	private static long add(long a, long b) {
+		long sum = a + b;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+
+	private static long subtract(long total, long part) {
+		return total == Long.MAX_VALUE ? total : total - part;
+	}
+}
@@ -0,0 +1,21 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+/**
+ * Encodes the paths of one paths file in one of the compact formats,
+ * and hands the bytes to a PathSink
+ */
+public interface PathEncoder {
+
+	/**
+	 * Encodes one path
+	 * @param path - node IDs
+	 * @param pathLength
+	 * @param metric
+	 */
+	public void writePath(int[] path, int pathLength, double metric);
+
+	/**
+	 * Writes out whatever the format keeps until the end, and closes the sink
+	 */
+	public void close();
+}
@@ -10,23 +10,32 @@
 
 package edu.osumc.bmi.aa.kdAlgorithm;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -47,33 +56,125 @@ public class PathFinder{
 	private static final String PATHS_OUTPUT_FILE_STR = "collabsFor";
 	private static final String COLLAB_PAIRS_FILE_STR = "collaborating-authors";
 	private static final String STRONGER_COLLAB_PAIRS_STR = "strongerCollabs";
+	private static final String PATH_COUNTS_FILE_STR = "pathCounts";
+	private static final String CHECKPOINT_FILE_STR = "checkpoint.journal";
+	private static final String RANKING_DIR_STR = "RWR-";
 
 	private static final String NON_DIVERGENT_STR = "non-divergent";
 	private static final String DIVERGENT_STR = "divergent";
 	
-	private static final String INPUT_K2A_FILE = "data/KeywordsToAuthors.csv";
-	private static final String INPUT_A2K_FILE = "data/AuthorsToKeywords.csv";
+	private static final String DATA_DIR_STR = "data/";
+	private static final String INPUT_K2A_FILE = "KeywordsToAuthors.csv";
+	private static final String INPUT_A2K_FILE = "AuthorsToKeywords.csv";
 	
-	private static final String INPUT_KEYWORD_ANNOTATIONS_FILE = "data/KeywordAnnotations.csv";
+	private static final String INPUT_KEYWORD_ANNOTATIONS_FILE = "KeywordAnnotations.csv";
 
 	private static final String CSV_FILE_EXTN = ".csv";
+	private static final String BIN_FILE_EXTN = ".bin";
+	private static final String TRIE_FILE_EXTN = ".trie";
+	private static final String PART_FILE_EXTN = ".part";
 	private static final String OSU_AUTHOR_PATTERN = "^GRT[0-9]+";
 	
 	private static final int DEGREES_OF_SEPARATION = 5;
 	private static final double PATH_WEIGHTAGE_THRESHOLD = 35.0;
 	private static final double KEYWORD_WEIGHTAGE_THRESHOLD = 1.25;
+	
+	/**
+	 * Root authors with at least this many keywords are split into one
+	 * fork/join subtask per keyword when running in parallel
+	 */
+	private static final int HUB_KEYWORD_SPLIT_THRESHOLD = 8;
+
+	/**
+	 * The root author tasks per thread that may run ahead of the author
+	 * whose collaborations are written next
+	 */
+	private static final int TASKS_IN_FLIGHT_PER_THREAD = 2;
+
+	/**
+	 * The paths files are written by an AsyncPathWriter with this many
+	 * slots in its ring buffer and this big a buffer for every open file
+	 */
+	private static final int PATH_WRITER_SLOTS = 8192;
+	private static final int PATH_WRITER_BUFFER_BYTES = 256 * 1024;
+	private static final long METRICS_LOG_INTERVAL_SECONDS = 60;
+
+	/**
+	 * A search adds its counts to the metrics every this many expansions
+	 * (a power of two), so the counts show an author while it blows up
+	 */
+	private static final long METRICS_PUBLISH_EXPANSIONS = 1L << 16;
+	private static final PathSink DISCARDING_SINK = new PathSink() {
+		@Override
+		public void write(byte[] bytes, int length) {
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+	private static final byte[] LINE_SEPARATOR_BYTES = System.getProperty("line.separator").getBytes();
 
-	private String OUTPUT_PATHS_DIR_LOC = "";
-	private String OUTPUT_COLLAB_AUTHORS_DIR_LOC = "";
-	private String STRONGER_COLLAB_AUTHORS_DIR_LOC = "";
+	/**
+	 * The configurations the paths are written out for. Normally this is just
+	 * the default configuration; a sweep traverses the graph once at the
+	 * loosest thresholds of all its configurations and routes every path to
+	 * each configuration that accepts it
+	 */
+	private List<ConfigurationOutput> outputs;
+	private int degreesOfSeparation;
+	private double pathWeightageThreshold;
+	private double keywordWeightageThreshold;
 			
 	private LocHierarchy loch;
-	private Map<String, List<String>> a2kMap, k2aMap;
-	private Set<String> setOfAuthorsFinishedWith;
+	private AuthorKeywordGraph graph;
+	private boolean[] authorsFinishedWith;
 	private Map<String, List<String>> mapOfKeywordsToWeightAndHier;
 
-	private List<String> collaboratingAuthorList;
-	private List<String> listOfKeywordsFinishedWith;
+	/**
+	 * Per node lookups computed once from the names so that the traversal
+	 * only ever deals with node IDs
+	 */
+	private boolean[] authorIsRoot;
+	private boolean[] authorIsExtensible;
+	private double[] keywordWeights;
+	private boolean[] keywordIsUsable;
+	
+	/**
+	 * Every keyword is mapped to a small ID for the heading it is annotated with,
+	 * and the semantic distances between all pairs of those headings are computed
+	 * once, so that the distance between two keywords is just a table lookup.
+	 * Heading ID 0 stands for keywords without a heading
+	 */
+	private int[] keywordHeadingIds;
+	private int[][] headingDistances;
+	
+	/**
+	 * For divergent searches, each path carries a bitmask of the LocHierarchy
+	 * root hierarchies its keywords came from. keywordHierarchyMasks holds the
+	 * bit a keyword adds to that mask and keywordConflictMasks the bits that
+	 * rule the keyword out. A keyword whose heading cannot be placed in any
+	 * hierarchy is at distance 0 from every other heading, so it sets
+	 * UNPLACED_HEADING_BIT and conflicts with every bit
+	 */
+	private int[] keywordHierarchyMasks;
+	private int[] keywordConflictMasks;
+	private static final int UNPLACED_HEADING_BIT = 1 << 31;
+	private static final int ALL_HIERARCHY_BITS = -1;
+	
+	/**
+	 * The most a single author-keyword hop can add to the path metric: the
+	 * largest usable keyword weight plus the largest possible semantic distance
+	 * between two headings. Used to prune paths that can never reach
+	 * the path weightage threshold
+	 */
+	private double maxMetricPerHop;
+	private long prunedBranchCount = 0;
+
+	/**
+	 * The counters of the current run, exposed through JMX
+	 */
+	private PathFinderMetrics metrics;
 	
 	/**
 	 * A flag to indicate if the search needs to avoid using keywords from the same
@@ -81,63 +182,331 @@ public class PathFinder{
 	 */
 	private boolean useDivergentKeywords = false;
 	
-	private PrintWriter pwForPaths = null;
-	private PrintWriter pwForCollabs = null;
-	private PrintWriter pwForStrongerCollabs = null;
+	/**
+	 * The number of fork/join worker threads used to explore root authors
+	 * concurrently. The default of 1 keeps the serial traversal
+	 */
+	private int threadCount = 1;
+	
+	/**
+	 * When greater than 0, only the topK highest scoring paths of every root
+	 * author, or of every pair of authors if topKPerAuthorPair is set, are kept
+	 * and written out
+	 */
+	private int topK = 0;
+	private boolean topKPerAuthorPair = false;
+	
+	/**
+	 * A copy of the CSR neighbors array in which the keywords of every author
+	 * are sorted by descending weight. The top-K search expands keywords in
+	 * this order so that good paths are found early and raise the heap floor
+	 */
+	private int[] keywordsByWeight;
+	
+	/**
+	 * The writer every search hands its encoded paths to, and the name of
+	 * every node encoded once so that a path is encoded by copying bytes
+	 */
+	private AsyncPathWriter pathWriter;
+	private byte[][] nameBytes;
+	
+	/**
+	 * When set, the paths files are written in the compact binary format
+	 * of BinaryPathEncoder instead of CSV
+	 */
+	private boolean writeBinaryPaths = false;
+	
+	/**
+	 * When set, the paths files are written as the prefix sharing tries
+	 * of PathTrieEncoder instead of CSV
+	 */
+	private boolean writeTriePaths = false;
+	
+	/**
+	 * When set, the paths are only counted by PathCounter and never enumerated
+	 */
+	private boolean countPathsOnly = false;
+
+	/**
+	 * When set, collaborators are ranked by a random walk with restart
+	 * instead of enumerating paths, and the rankedCollaboratorCount best 
+	 * of every root author are written out
+	 */
+	private RandomWalkRanker.Method rankingMethod = null;
+	private int rankedCollaboratorCount = 0;
+	private static final long RANKING_SEED = 0L;
+	
+	/**
+	 * A resumed run picks up from the checkpoint journals
+	 */
+	private boolean resume = false;
+
+	/**
+	 * Answers queries for the paths between two chosen authors, built the
+	 * first time it is needed
+	 */
+	private PairwisePathQuery pairwiseQuery = null;
+	private BestFirstPathSearch bestFirstSearch = null;
+
+	/**
+	 * What to do with keywords attached to a great many authors. The policy
+	 * works on the full graph and keyword weights and leaves the result in 
+	 * graph and keywordWeights; hubRemovedFanOuts holds how many authors it
+	 * took away from every keyword, to count the expansions it saves
+	 */
+	private KeywordHubPolicy hubPolicy = KeywordHubPolicy.NONE;
+	private AuthorKeywordGraph fullGraph;
+	private double[] fullKeywordWeights;
+	private int[] hubRemovedFanOuts;
+	private long removedExpansionCount = 0;
 	
 	static {
 		log.setLevel(Level.DEBUG);
 	}
 
+	/**
+	 * The output directory and the collaborations files of one configuration.
+	 * The checkpoint journal gets one line per finished root author, with the
+	 * CRC32 of its paths file, once its collaborations are safely written.
+	 * A resumed run trusts the journal up to the first line whose checksum no
+	 * longer matches, marks those authors as finished and carries on from there
+	 */
+	private static class ConfigurationOutput {
+		private PathConfiguration configuration;
+		private String pathsDirLoc;
+		private String collabAuthorsFileLoc;
+		private String strongerCollabAuthorsFileLoc;
+		private PrintWriter pwForCollabs = null;
+		private PrintWriter pwForStrongerCollabs = null;
+		private PrintWriter pwForCheckpoints = null;
+
+		private ConfigurationOutput(PathConfiguration configuration, String modeDirLoc) {
+			this.configuration = configuration;
+			pathsDirLoc = modeDirLoc + configuration.getDirectoryName() + DIRPATH_SEPARATOR;
+			collabAuthorsFileLoc = pathsDirLoc + COLLAB_PAIRS_FILE_STR + CSV_FILE_EXTN;
+			strongerCollabAuthorsFileLoc = pathsDirLoc + STRONGER_COLLAB_PAIRS_STR + CSV_FILE_EXTN;
+		}
+	}
+
+	/**
+	 * The state that used to live in instance fields while the paths of one
+	 * root author were being explored. Every search, whether it covers a 
+	 * whole author or only the paths through one of its keywords, gets its
+	 * own instance so that several searches can run at the same time.
+	 * 
+	 * The path under construction is a preallocated stack of node IDs that
+	 * the depth first search pushes onto and pops off, together with a bitset
+	 * of the nodes currently on the stack, so extending a path allocates 
+	 * nothing and checking whether a node is on the path is a single bit test.
+	 * Complete paths are encoded into a reusable line buffer for the sinks
+	 */
+	private static class SearchState {
+		private int rootAuthor;
+		private EndpointCounter[] endpointCounters;
+		private PathSink[] pathSinks;
+		private PathEncoder[] pathEncoders;
+		private byte[] lineBytes = new byte[256];
+		private int lineLength = 0;
+		private long prunedBranchCount = 0;
+		private long removedExpansionCount = 0;
+		private long expandedPathCount = 0;
+		/**
+		 * The counts not yet added to the metrics
+		 */
+		private long[] expandedPathCounts;
+		private long emittedPathCount = 0;
+		private long rejectedPathCount = 0;
+		private long publishedPrunedBranchCount = 0;
+		private TopPathHeap topPaths = null;
+		private Map<Integer, TopPathHeap> topPathsByEndpoint = null;
+
+		private int[] pathStack;
+		private int pathLength = 0;
+		private long[] nodesOnPath;
+
+		private SearchState(int rootAuthor, int outputCount) {
+			this.rootAuthor = rootAuthor;
+			pathSinks = new PathSink[outputCount];
+			pathEncoders = new PathEncoder[outputCount];
+			endpointCounters = new EndpointCounter[outputCount];
+			for (int i = 0; i < outputCount; i++) {
+				endpointCounters[i] = new EndpointCounter();
+			}
+		}
+
+		private SearchState(int rootAuthor, int outputCount, int nodeCount, int degreesOfSeparation) {
+			this(rootAuthor, outputCount);
+			pathStack = new int[2 * degreesOfSeparation + 1];
+			expandedPathCounts = new long[degreesOfSeparation + 1];
+			nodesOnPath = new long[(nodeCount + 63) >>> 6];
+			push(rootAuthor);
+		}
+
+		private void push(int node) {
+			pathStack[pathLength++] = node;
+			nodesOnPath[node >>> 6] |= 1L << node;
+		}
+
+		private void pop() {
+			int node = pathStack[--pathLength];
+			nodesOnPath[node >>> 6] &= ~(1L << node);
+		}
+
+		private int peek() {
+			return pathStack[pathLength - 1];
+		}
+
+		private boolean isOnPath(int node) {
+			return (nodesOnPath[node >>> 6] & (1L << node)) != 0;
+		}
+
+		/**
+		 * Drops everything the search needed once it is over, keeping only
+		 * the endpoints and the counts that printCollaborationsToFile needs
+		 */
+		private void releaseSearchBuffers() {
+			pathStack = null;
+			nodesOnPath = null;
+			lineBytes = null;
+			pathSinks = null;
+			pathEncoders = null;
+			topPaths = null;
+			topPathsByEndpoint = null;
+		}
+	}
+
+	/**
+	 * Explores all the paths of one root author as a fork/join task. Hub authors
+	 * are split further into one subtask per keyword so that idle workers can 
+	 * steal the branches of an expensive author. The subtasks write to part 
+	 * files that are stitched together in keyword order, so the output matches
+	 * the serial traversal line for line. In top-K mode the subtasks only keep
+	 * their best paths, which are merged before the author's file is written
+	 */
+	private class AuthorPathsTask extends RecursiveTask<SearchState> {
+		private static final long serialVersionUID = 4262918375903146711L;
+		private int author;
+
+		private AuthorPathsTask(int author) {
+			this.author = author;
+		}
+
+		@Override
+		protected SearchState compute() {
+			metrics.startAuthor(graph.getName(author));
+			try {
+				SearchState state = computeAuthor();
+				state.releaseSearchBuffers();
+				return state;
+			} finally {
+				metrics.finishAuthor(graph.getName(author));
+			}
+		}
+
+		private SearchState computeAuthor() {
+			if (!authorCanBeSplit(author)) {
+				return generatePathsForAuthor(author);
+			}
+			int[] offsets = graph.getOffsets();
+			File[] outputFiles = getPathsFilesForAuthor(author);
+			List<KeywordPathsTask> subtasks = new ArrayList<KeywordPathsTask>();
+			List<File[]> partFiles = new ArrayList<File[]>();
+			for (int kwIndex = offsets[author]; kwIndex < offsets[author + 1]; kwIndex++) {
+				File[] kwPartFiles = null;
+				if (topK == 0) {
+					kwPartFiles = new File[outputFiles.length];
+					for (int i = 0; i < outputFiles.length; i++) {
+						kwPartFiles[i] = new File(outputFiles[i].getPath() + PART_FILE_EXTN + kwIndex);
+					}
+					partFiles.add(kwPartFiles);
+				}
+				subtasks.add(new KeywordPathsTask(author, kwIndex, kwPartFiles));
+			}
+			invokeAll(subtasks);
+
+			SearchState state = new SearchState(author, outputFiles.length);
+			initTopPaths(state);
+			for (KeywordPathsTask subtask : subtasks) {
+				SearchState subtaskState = subtask.join();
+				for (int i = 0; i < outputFiles.length; i++) {
+					state.endpointCounters[i].addAll(subtaskState.endpointCounters[i]);
+				}
+				state.prunedBranchCount += subtaskState.prunedBranchCount;
+				state.removedExpansionCount += subtaskState.removedExpansionCount;
+				mergeTopPaths(state, subtaskState);
+			}
+			if (topK == 0) {
+				for (int i = 0; i < outputFiles.length; i++) {
+					List<File> outputPartFiles = new ArrayList<File>();
+					for (File[] kwPartFiles : partFiles) {
+						outputPartFiles.add(kwPartFiles[i]);
+					}
+					concatenatePartFiles(outputPartFiles, outputFiles[i]);
+				}
+			} else {
+				printTopPathsToFile(state, outputFiles[0]);
+			}
+			return state;
+		}
+	}
+
+	/**
+	 * Explores the paths of a root author that start with one of its keywords
+	 */
+	private class KeywordPathsTask extends RecursiveTask<SearchState> {
+		private static final long serialVersionUID = -1907284310266185372L;
+		private int author;
+		private int kwIndex;
+		private File[] partFiles;
+
+		private KeywordPathsTask(int author, int kwIndex, File[] partFiles) {
+			this.author = author;
+			this.kwIndex = kwIndex;
+			this.partFiles = partFiles;
+		}
+
+		@Override
+		protected SearchState compute() {
+			return generatePaths(author, kwIndex, partFiles);
+		}
+	}
+
 	public PathFinder(boolean useDivergentKeywords) {
-		String[][] a2kArray = readCSVFileIntoMatrix(INPUT_A2K_FILE);
-		String[][] k2aArray = readCSVFileIntoMatrix(INPUT_K2A_FILE);
+		this(useDivergentKeywords, DATA_DIR_STR);
+	}
+
+	/**
+	 * @param useDivergentKeywords
+	 * @param dataDirLoc - the directory with the input files, ending with a /
+	 */
+	public PathFinder(boolean useDivergentKeywords, String dataDirLoc) {
+		String[][] a2kArray = readCSVFileIntoMatrix(dataDirLoc + INPUT_A2K_FILE);
+		String[][] k2aArray = readCSVFileIntoMatrix(dataDirLoc + INPUT_K2A_FILE);
 
-		String[][] usefulKeywordsArray = readCSVFileIntoMatrix(INPUT_KEYWORD_ANNOTATIONS_FILE);
+		String[][] usefulKeywordsArray = readCSVFileIntoMatrix(dataDirLoc + INPUT_KEYWORD_ANNOTATIONS_FILE);
 				
-		a2kMap = sortValuesInMap(transformArrayToHashMap(a2kArray));
-		k2aMap = sortValuesInMap(transformArrayToHashMap(k2aArray));
+		Map<String, List<String>> a2kMap = sortValuesInMap(transformArrayToHashMap(a2kArray));
+		Map<String, List<String>> k2aMap = sortValuesInMap(transformArrayToHashMap(k2aArray));
 		log.info("Obtained keywordToAuthorsMap with " + k2aMap.size() + " keywords!");
 		log.info("Obtained authorToKeywordsMap with " + a2kMap.size() + " authors!");
 		
-		loch = new LocHierarchy();
+		graph = new AuthorKeywordGraph(a2kMap, k2aMap);
+		log.info("Interned " + graph.getAuthorCount() + " authors and " + graph.getKeywordCount() + 
+				" keywords into a graph with " + graph.getEdgeCount() + " edges");
+		
+		loch = new LocHierarchy(dataDirLoc);
 		
 		mapOfKeywordsToWeightAndHier = transformKeywordArrayToHashMap(usefulKeywordsArray);
-		setOfAuthorsFinishedWith = new HashSet<String>();
+		authorsFinishedWith = new boolean[graph.getAuthorCount()];
 		this.useDivergentKeywords = useDivergentKeywords;
-		
-		if(useDivergentKeywords){
-			this.OUTPUT_PATHS_DIR_LOC = OUTPUT_STR + DIRPATH_SEPARATOR + DIVERGENT_STR + DIRPATH_SEPARATOR + 
-					"KWWT-" + KEYWORD_WEIGHTAGE_THRESHOLD + "-PWT-" + 
-					PATH_WEIGHTAGE_THRESHOLD + "-DOS-" + DEGREES_OF_SEPARATION + 
-					DIRPATH_SEPARATOR;
-			this.OUTPUT_COLLAB_AUTHORS_DIR_LOC = OUTPUT_STR + DIRPATH_SEPARATOR + DIVERGENT_STR + DIRPATH_SEPARATOR +
-					"KWWT-" + KEYWORD_WEIGHTAGE_THRESHOLD + "-PWT-" + 
-					PATH_WEIGHTAGE_THRESHOLD + "-DOS-" + DEGREES_OF_SEPARATION + 
-					DIRPATH_SEPARATOR +
-					COLLAB_PAIRS_FILE_STR + CSV_FILE_EXTN;
-			this.STRONGER_COLLAB_AUTHORS_DIR_LOC = OUTPUT_STR + DIRPATH_SEPARATOR + DIVERGENT_STR + DIRPATH_SEPARATOR +
-					"KWWT-" + KEYWORD_WEIGHTAGE_THRESHOLD + "-PWT-" + 
-					PATH_WEIGHTAGE_THRESHOLD + "-DOS-" + DEGREES_OF_SEPARATION + 
-					DIRPATH_SEPARATOR + 
-					STRONGER_COLLAB_PAIRS_STR + CSV_FILE_EXTN;
-		}
-		else {
-			this.OUTPUT_PATHS_DIR_LOC = OUTPUT_STR + DIRPATH_SEPARATOR + NON_DIVERGENT_STR + DIRPATH_SEPARATOR + 
-					"KWWT-" + KEYWORD_WEIGHTAGE_THRESHOLD + "-PWT-" + 
-					PATH_WEIGHTAGE_THRESHOLD + "-DOS-" + DEGREES_OF_SEPARATION + 
-					DIRPATH_SEPARATOR;
-			this.OUTPUT_COLLAB_AUTHORS_DIR_LOC = OUTPUT_STR + DIRPATH_SEPARATOR + NON_DIVERGENT_STR + DIRPATH_SEPARATOR +
-					"KWWT-" + KEYWORD_WEIGHTAGE_THRESHOLD + "-PWT-" + 
-					PATH_WEIGHTAGE_THRESHOLD + "-DOS-" + DEGREES_OF_SEPARATION + 
-					DIRPATH_SEPARATOR + 
-					COLLAB_PAIRS_FILE_STR + CSV_FILE_EXTN;
-			this.STRONGER_COLLAB_AUTHORS_DIR_LOC = OUTPUT_STR + DIRPATH_SEPARATOR + NON_DIVERGENT_STR + DIRPATH_SEPARATOR +
-					"KWWT-" + KEYWORD_WEIGHTAGE_THRESHOLD + "-PWT-" + 
-					PATH_WEIGHTAGE_THRESHOLD + "-DOS-" + DEGREES_OF_SEPARATION + 
-					DIRPATH_SEPARATOR +
-					STRONGER_COLLAB_PAIRS_STR + CSV_FILE_EXTN;
-		}
+		computeNodeProperties();
+		computeHeadingDistances();
+		fullGraph = graph;
+		fullKeywordWeights = keywordWeights;
+		hubRemovedFanOuts = new int[graph.getNodeCount()];
+		List<PathConfiguration> configurations = new ArrayList<PathConfiguration>();
+		configurations.add(new PathConfiguration(KEYWORD_WEIGHTAGE_THRESHOLD, PATH_WEIGHTAGE_THRESHOLD, DEGREES_OF_SEPARATION));
+		setPathConfigurations(configurations);
 	}
 	
 	/**
@@ -227,6 +596,103 @@ public class PathFinder{
 		return hashMap;
 	}
 	
+	/**
+	 * Resolves the checks that only depend on the name of an author or keyword
+	 * once for every node in the graph, so that the path search never has to 
+	 * match a regex or parse a weight
+	 */
+	private void computeNodeProperties() {
+		int authorCount = graph.getAuthorCount();
+		int nodeCount = graph.getNodeCount();
+		authorIsRoot = new boolean[authorCount];
+		authorIsExtensible = new boolean[authorCount];
+		for (int author = 0; author < authorCount; author++) {
+			String name = graph.getName(author);
+			boolean isOsuAuthor = name.matches(OSU_AUTHOR_PATTERN);
+			authorIsRoot[author] = !name.equals(BLANK) && isOsuAuthor;
+			authorIsExtensible[author] = !name.equals(BLANK) && !isOsuAuthor;
+		}
+		keywordWeights = new double[nodeCount];
+		for (int kw = authorCount; kw < nodeCount; kw++) {
+			List<String> weightAndHierList = mapOfKeywordsToWeightAndHier.get(graph.getName(kw));
+			if(weightAndHierList != null){
+				keywordWeights[kw] = Double.parseDouble(weightAndHierList.get(0));
+			}
+		}
+	}
+
+	/**
+	 * Finds the keywords that are heavy enough to be used on a path
+	 * @param threshold - the keyword weightage threshold
+	 * @return
+	 */
+	private boolean[] findUsableKeywords(double threshold) {
+		boolean[] usable = new boolean[graph.getNodeCount()];
+		for (int kw = graph.getAuthorCount(); kw < graph.getNodeCount(); kw++) {
+			usable[kw] = mapOfKeywordsToWeightAndHier.containsKey(graph.getName(kw)) && keywordWeights[kw] >= threshold;
+		}
+		return usable;
+	}
+
+	/**
+	 * Interns the heading of every keyword in the graph and builds the dense
+	 * matrix of semantic distances between those headings
+	 */
+	private void computeHeadingDistances() {
+		Map<String, Integer> headingIds = new HashMap<String, Integer>();
+		List<String> headings = new ArrayList<String>();
+		headingIds.put("", 0);
+		headings.add("");
+		keywordHeadingIds = new int[graph.getNodeCount()];
+		for (int kw = graph.getAuthorCount(); kw < graph.getNodeCount(); kw++) {
+			String heading = findHeadingForKeyword(graph.getName(kw));
+			Integer headingId = headingIds.get(heading);
+			if(headingId == null){
+				headingId = headings.size();
+				headingIds.put(heading, headingId);
+				headings.add(heading);
+			}
+			keywordHeadingIds[kw] = headingId;
+		}
+		headingDistances = loch.computeSemanticDistanceMatrix(headings);
+		log.info("Computed semantic distances between " + headings.size() + " headings");
+		
+		int[] rootIndexes = loch.computeRootIndexes(headings);
+		keywordHierarchyMasks = new int[graph.getNodeCount()];
+		keywordConflictMasks = new int[graph.getNodeCount()];
+		for (int kw = graph.getAuthorCount(); kw < graph.getNodeCount(); kw++) {
+			int rootIndex = rootIndexes[keywordHeadingIds[kw]];
+			if(rootIndex < 0){
+				keywordHierarchyMasks[kw] = UNPLACED_HEADING_BIT;
+				keywordConflictMasks[kw] = ALL_HIERARCHY_BITS;
+			} else {
+				keywordHierarchyMasks[kw] = 1 << rootIndex;
+				keywordConflictMasks[kw] = (1 << rootIndex) | UNPLACED_HEADING_BIT;
+			}
+		}
+	}
+
+	/**
+	 * Computes an upper bound on how much one more hop can add to the
+	 * path metric
+	 */
+	private void computeMaxMetricPerHop() {
+		double maxKeywordWeight = 0.0;
+		int maxDistance = 0;
+		for (int kw = graph.getAuthorCount(); kw < graph.getNodeCount(); kw++) {
+			if(keywordIsUsable[kw] && keywordWeights[kw] > maxKeywordWeight){
+				maxKeywordWeight = keywordWeights[kw];
+			}
+		}
+		for (int[] row : headingDistances) {
+			for (int distance : row) {
+				maxDistance = Math.max(maxDistance, distance);
+			}
+		}
+		maxMetricPerHop = maxKeywordWeight + maxDistance;
+		log.info("A hop adds at most " + maxMetricPerHop + " to the path metric");
+	}
+
 	/**
 	 * Method simply sorts the collection of values in the map by alphabetical
 	 * order. May be modified in future or dispensed with.
@@ -265,319 +731,1330 @@ public class PathFinder{
 	 * to file
 	 */
 	private void printCompletePathsForEveryAuthorToFile() {
-		for (String author : a2kMap.keySet()) {
+		if(threadCount > 1){
+			printCompletePathsForEveryAuthorInParallel();
+			return;
+		}
+		for (int author = 0; author < graph.getAuthorCount(); author++) {
 			// Every path needs to start with an OSU researcher
-			if (!author.equals(BLANK) && author.matches(OSU_AUTHOR_PATTERN)) {
-				generatePathsForAuthor(author);
-				if(collaboratingAuthorList.size() > 1){
-					log.debug("Writing collaborations for " + author);
-					pwForCollabs.println(convertCollaboratingAuthorListToCommaDelimitedString(collaboratingAuthorList));
-					printStrongerCollaborationsToFile(collaboratingAuthorList);
-				}
-				setOfAuthorsFinishedWith.add(author);
+			if (authorIsRoot[author] && !authorsFinishedWith[author]) {
+				metrics.startAuthor(graph.getName(author));
+				SearchState state = generatePathsForAuthor(author);
+				metrics.finishAuthor(graph.getName(author));
+				printCollaborationsToFile(state);
+				authorsFinishedWith[author] = true;
+				printCheckpointToFile(author);
 			}
 		}
 	}
 
 	/**
-	 * Find pairs of authors who occur together more than once at the ends
-	 * of paths explored by the algorithm and add them to file.
-	 * @param collaboratingAuthorList2
+	 * The parallel version of printCompletePathsForEveryAuthorToFile. Each root
+	 * author is explored by its own fork/join task, while the collaborations
+	 * are still written in the order of the serial traversal.
+	 * Roots are always OSU authors, which can never be the next author on a
+	 * path anyway, so marking them as finished while other tasks are running
+	 * does not change any of the paths.
+	 * At most TASKS_IN_FLIGHT_PER_THREAD tasks per thread are submitted
+	 * ahead of the author being written, so a slow author holds back a
+	 * bounded number of finished ones rather than all of them
 	 */
-	private void printStrongerCollaborationsToFile(List<String> authorList) {
-		int listSize = authorList.size();
-		int occurrenceCount = 1;
-		String firstAuthor = authorList.get(0);
-		List<String> secondAuthorList = authorList.subList(1, listSize);
-		
-		Collections.sort(secondAuthorList);
-		String currentAuthor = secondAuthorList.get(0);
-		
-		for(int i = 1; i < listSize - 1; i++){
-			if(secondAuthorList.get(i).equals(currentAuthor)){
-				++occurrenceCount;
-			} else {
-				if(occurrenceCount > 1){
-					pwForStrongerCollabs.println(firstAuthor + "," + currentAuthor + "," + occurrenceCount);
-					occurrenceCount = 1;
-					currentAuthor = secondAuthorList.get(i);
+	private void printCompletePathsForEveryAuthorInParallel() {
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		ArrayDeque<AuthorPathsTask> tasks = new ArrayDeque<AuthorPathsTask>();
+		int maxTasksInFlight = TASKS_IN_FLIGHT_PER_THREAD * threadCount;
+		log.info("Exploring paths on " + threadCount + " threads");
+		try {
+			for (int author = 0; author < graph.getAuthorCount(); author++) {
+				if (authorIsRoot[author] && !authorsFinishedWith[author]) {
+					if (tasks.size() == maxTasksInFlight) {
+						finishAuthorTask(tasks.poll());
+					}
+					AuthorPathsTask task = new AuthorPathsTask(author);
+					pool.execute(task);
+					tasks.add(task);
 				}
 			}
+			while (!tasks.isEmpty()) {
+				finishAuthorTask(tasks.poll());
+			}
+		} finally {
+			pool.shutdown();
 		}
 	}
 
 	/**
-	 * A method to convert a list of collaborating authors to a comma delimited string
-	 * after eliminating duplicates
-	 * @param list
-	 * @return
+	 * Waits for the task of a root author and writes its collaborations
+	 * @param task
 	 */
-	private String convertCollaboratingAuthorListToCommaDelimitedString(List<String> list) {
-		String firstAuthor = list.get(0);
-		Set<String> set = new TreeSet<String>(list.subList(1, list.size())); //eliminate duplicates
-		List<String> sortedList = new ArrayList<String>();
-		sortedList.add(firstAuthor);
-		sortedList.addAll(set);
-		log.debug("Writing " + sortedList.size() + " collaborating authors for " + firstAuthor);
-		String cds = "";
-		Iterator<String> sit = sortedList.iterator(); 
-		while(sit.hasNext()){
-			cds += sit.next() + ",";
-		}
-		cds = cds.substring(0, cds.length() - 1);
-		return cds;
+	private void finishAuthorTask(AuthorPathsTask task) {
+		SearchState state = task.join();
+		printCollaborationsToFile(state);
+		authorsFinishedWith[state.rootAuthor] = true;
+		printCheckpointToFile(state.rootAuthor);
 	}
 
-
 	/**
-	 * This method generates all the paths for the given author The generated
-	 * paths are written to an output file
-	 * 
+	 * Authors with enough keywords are split into one subtask per keyword.
+	 * The paths under one keyword never depend on the paths under another,
+	 * so the split does not change the output. Binary and trie paths files
+	 * carry their own dictionary and cannot simply be concatenated, so
+	 * authors are never split when writing them
 	 * @param author
+	 * @return
 	 */
-	private void generatePathsForAuthor(String author) {
-		List<String> path = new ArrayList<String>();
-		String fileStr = OUTPUT_PATHS_DIR_LOC + PATHS_OUTPUT_FILE_STR + 
-						author + CSV_FILE_EXTN;
-		collaboratingAuthorList = new ArrayList<String>();
-		listOfKeywordsFinishedWith = new ArrayList<String>();
-		collaboratingAuthorList.add(author);
-		File outputFile = new File(fileStr);
-		try {
-			pwForPaths = new PrintWriter(outputFile);
-			path.add(author);
-			extendPath(path, 0);
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} finally{
-			if(pwForPaths != null){
-				pwForPaths.flush();
-				pwForPaths.close();
-			}
-		}
+	private boolean authorCanBeSplit(int author) {
+		return graph.getDegree(author) >= HUB_KEYWORD_SPLIT_THRESHOLD && !writesEncodedPaths();
 	}
 
 	/**
-	 * The most crucial method in the class. Extends paths recursively with valid 
-	 * author-keyword combinations. If the path is complete (adequate number of
-	 * keywords), it invokes a method to write the path to file
-	 * @param path
-	 * @param dosCount
+	 * @return true if the paths files are written in one of the compact formats
 	 */
-	private void extendPath(List<String> path, int dosCount){
-		List<String> authorListForKw, kwListForAuthor, extendedPath;
-		Iterator<String> kwIter;
-		String authorToExtend = path.get(path.size() - 1);
-		String pathRep = "", lastAuthor = "";
-		
-		if(dosCount == DEGREES_OF_SEPARATION){
-			pathRep = pathToString(path).trim();
-			if(pathRep.length() > 0){
-				pwForPaths.println(pathRep);
-				lastAuthor = path.get(path.size() - 1);
-				collaboratingAuthorList.add(lastAuthor);
-			}
-			return;
-		}
-		
-		kwListForAuthor = a2kMap.get(authorToExtend);
-		if(kwListForAuthor == null){
-			return;
-		}
-		
-		kwIter = kwListForAuthor.iterator();
-	
-		while (kwIter.hasNext()) {
-			String kw = kwIter.next();
-			if (kwIsValid(path, kw)) {
-				authorListForKw = k2aMap.get(kw);
-				if(authorListForKw == null){
-					continue;
-				}
-				for (String nextAuthor : authorListForKw) {
-					if (nextAuthorIsValid(path, nextAuthor)) {
-						extendedPath = new ArrayList<String>();
-						int localDosCount = dosCount;
-						extendedPath.addAll(path);
-						extendedPath.add(kw);
-						addToKeywordListIfNecessary(kw);
-						extendedPath.add(nextAuthor);
-						extendPath(extendedPath, ++localDosCount);
-					}
-				}
-			}
-		}
+	private boolean writesEncodedPaths() {
+		return writeBinaryPaths || writeTriePaths;
 	}
 
 	/**
-	 * Add non-duplicate keywords to list that contains list of keywords
-	 * that we have finished expanding upon
-	 * @param kw
+	 * @param sink
+	 * @return the encoder of the compact format the paths files are written in
 	 */
-	private void addToKeywordListIfNecessary(String kw) {
-		if(!listOfKeywordsFinishedWith.contains(kw)){
-			listOfKeywordsFinishedWith.add(kw);
+	private PathEncoder createPathEncoder(PathSink sink) {
+		if(writeTriePaths){
+			return new PathTrieEncoder(sink, nameBytes, true);
 		}
+		return new BinaryPathEncoder(sink, nameBytes);
 	}
 
 	/**
-	 * To check a host of conditions for keyword
-	 * @param path
-	 * @param kw
-	 * @return
+	 * Writes the authors found at the ends of the paths of one root
+	 * author to the collaborations files of every configuration
+	 * @param state
 	 */
-	private boolean kwIsValid(List<String> path, String kw) {
-		boolean keywordIsBasicallyValid = mapOfKeywordsToWeightAndHier.keySet().contains(kw) && !path.contains(kw) &&
-				Double.parseDouble(mapOfKeywordsToWeightAndHier.get(kw).get(0)) >= KEYWORD_WEIGHTAGE_THRESHOLD;
-		if(keywordIsBasicallyValid){		
-			if(useDivergentKeywords){ //every keyword must come from a different hierarchy
-				if(listOfKeywordsFinishedWith.size() > 1){
-					String heading1 = findHeadingForKeyword(kw);
-					for(int previousKeywordIndex = 0; 
-							previousKeywordIndex < listOfKeywordsFinishedWith.size(); previousKeywordIndex++){
-						String previousKw = listOfKeywordsFinishedWith.get(previousKeywordIndex);
-						String heading2 = findHeadingForKeyword(previousKw);
-						if(loch.computeSemanticDistanceBetweenHeadings(heading1, heading2) == 0){
-							return false;
-						}
-					}
-					return true;
-				}
-				return true;
+	private void printCollaborationsToFile(SearchState state) {
+		log.debug("Pruned " + state.prunedBranchCount + " branches for " + graph.getName(state.rootAuthor));
+		prunedBranchCount += state.prunedBranchCount;
+		removedExpansionCount += state.removedExpansionCount;
+		for (int i = 0; i < outputs.size(); i++) {
+			EndpointCounter endpointCounter = state.endpointCounters[i];
+			if(!endpointCounter.isEmpty()){
+				log.debug("Writing collaborations for " + graph.getName(state.rootAuthor));
+				int[] endpoints = sortEndpointsByName(endpointCounter);
+				outputs.get(i).pwForCollabs.println(convertCollaboratingAuthorListToCommaDelimitedString(state.rootAuthor, endpoints));
+				printStrongerCollaborationsToFile(state.rootAuthor, endpoints, endpointCounter, outputs.get(i).pwForStrongerCollabs);
 			}
-			return true;
-		} 
-		return false;
+		}
 	}
 
 	/**
-	 * A method to make sure the next author is: a) not a blank, b) not 
-	 * on the path already, c) not an author we have seen before, and d) not an
-	 * OSU author either
-	 * 
+	 * Journals a finished root author. The collaborations files are flushed
+	 * first, so that every journaled author has all of its lines on disk
 	 * @param author
-	 * @param path
-	 * @param kw
-	 * @return
 	 */
-	private boolean nextAuthorIsValid(List<String> path, String nextAuthor) {
-		return (!nextAuthor.equals(BLANK) && !path.contains(nextAuthor)
-				&& !setOfAuthorsFinishedWith.contains(nextAuthor) && 
-				!nextAuthor.matches(OSU_AUTHOR_PATTERN));
+	private void printCheckpointToFile(int author) {
+		for (ConfigurationOutput output : outputs) {
+			output.pwForCollabs.flush();
+			output.pwForStrongerCollabs.flush();
+			output.pwForCheckpoints.println(graph.getName(author) + COMMA + computeChecksum(getPathsFileForAuthor(author, output)));
+			output.pwForCheckpoints.flush();
+		}
 	}
 
 	/**
-	 * Method to generate a text representation of a generated path Format is
-	 * [AUTHOR]->[KEYWORD1]->[AUTHOR2]->[KEYWORD2]->...
-	 * If path weight (metric) is less than the preset threshold, a blank string
-	 * is returned
-	 * @param wordList
+	 * Computes the CRC32 of a file. A file that does not exist has the
+	 * checksum of an empty file, since empty files are cleaned up at the end
+	 * @param file
 	 * @return
 	 */
-	private String pathToString(List<String> wordList) {
-		int lastIndexOfSeparator = 0;
-		double pathMetric = 0.0;
-		double weight = 0.0;
-		String line = "";
-		for (int i = 0; i < wordList.size(); i++) {
-			String word = wordList.get(i);
-			if(mapOfKeywordsToWeightAndHier.containsKey(word)){
-				weight = Double.parseDouble(mapOfKeywordsToWeightAndHier.get(word).get(0));
-				String heading1 = findHeadingForKeyword(word);
-				pathMetric += weight;
-				if(i - 2 >= 1 && mapOfKeywordsToWeightAndHier.containsKey(wordList.get(i - 2))){
-					String previousWord = wordList.get(i - 2);
-					String heading2 = findHeadingForKeyword(previousWord);
-					pathMetric += loch.computeSemanticDistanceBetweenHeadings(heading1, heading2);
+	private long computeChecksum(File file) {
+		CRC32 crc = new CRC32();
+		if(file.exists()){
+			InputStream is = null;
+			try {
+				is = new FileInputStream(file);
+				byte[] buffer = new byte[64 * 1024];
+				int bytesRead;
+				while((bytesRead = is.read(buffer)) > 0){
+					crc.update(buffer, 0, bytesRead);
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				if(is != null){
+					try {
+						is.close();
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
 				}
 			}
-			line += word + COMMA;
-		}
-		lastIndexOfSeparator = line.lastIndexOf(COMMA);
-		if(pathMetric >= PATH_WEIGHTAGE_THRESHOLD){
-			line = pathMetric + "," + line.substring(0, lastIndexOfSeparator);
-		} else {
-			line = "";
 		}
-		return line;
+		return crc.getValue();
 	}
 
 	/**
-	 * This method finds the heading a keyword is classified under
-	 * @param word
-	 * @return
+	 * This method picks up an interrupted run from its checkpoint journals.
+	 * The root authors journaled with an intact paths file for every 
+	 * configuration are marked as finished, and every line the other root
+	 * authors left behind in the journals and the collaborations files is
+	 * dropped, so that appending to those files does not duplicate anything
 	 */
-	private String findHeadingForKeyword(String word) {
-		String heading = "";
-		if(mapOfKeywordsToWeightAndHier.containsKey(word)){
-			List<String> weightAndHierList = mapOfKeywordsToWeightAndHier.get(word);
-			String completeHierarchy = weightAndHierList.get(1);
-			String[] completeHierarchyComponents = completeHierarchy.split(":");
-			heading = completeHierarchyComponents[0];
+	private void resumeFromCheckpoint() {
+		Set<String> finishedAuthors = null;
+		for (ConfigurationOutput output : outputs) {
+			Set<String> journaledAuthors = readCheckpointJournal(output);
+			if(finishedAuthors == null){
+				finishedAuthors = journaledAuthors;
+			} else {
+				finishedAuthors.retainAll(journaledAuthors);
+			}
 		}
-		return heading;
-	}
-
-	/**
-	 * This method deletes ALL files from the 
-	 * output directory. If directory does not exist,
-	 * creates it
-	 */
-	private void cleanUpOutputDir(){
-		File dir = new File(OUTPUT_PATHS_DIR_LOC);
-		if(!dir.exists()){
-			dir.mkdir();
+		for (String finishedAuthor : finishedAuthors) {
+			authorsFinishedWith[graph.getAuthorId(finishedAuthor)] = true;
 		}
-		for(File file : dir.listFiles()){
-				file.delete();
+		log.info("Resuming after " + finishedAuthors.size() + " finished authors");
+		for (ConfigurationOutput output : outputs) {
+			new File(output.pathsDirLoc).mkdirs();
+			keepLinesOfAuthors(new File(output.pathsDirLoc + CHECKPOINT_FILE_STR), finishedAuthors);
+			keepLinesOfAuthors(new File(output.collabAuthorsFileLoc), finishedAuthors);
+			keepLinesOfAuthors(new File(output.strongerCollabAuthorsFileLoc), finishedAuthors);
+			for(File file : new File(output.pathsDirLoc).listFiles()){
+				if(file.getName().contains(PART_FILE_EXTN)){
+					file.delete();
+				}
+			}
 		}
 	}
 
 	/**
-	 * This method eliminates all the empty files from
-	 * the output directory
+	 * Reads the checkpoint journal of a configuration up to the first root
+	 * author whose paths file no longer matches its checksum
+	 * @param output
+	 * @return the root authors finished with in that configuration
 	 */
-	private void cleanUpOutputDirOfEmptyFiles(){
-		File dir = new File(OUTPUT_PATHS_DIR_LOC);
-		for(File file : dir.listFiles()){
-			if(file.length() == 0){
-				file.delete();
+	private Set<String> readCheckpointJournal(ConfigurationOutput output) {
+		File journal = new File(output.pathsDirLoc + CHECKPOINT_FILE_STR);
+		Set<String> journaledAuthors = new HashSet<String>();
+		if(journal.exists()){
+			String[][] checkpoints = readCSVFileIntoMatrix(journal.getPath());
+			for (String[] checkpoint : checkpoints) {
+				int author = graph.getAuthorId(checkpoint[0]);
+				if(author < 0 || !authorIsRoot[author] || checkpoint.length < 2 ||
+						!checkpoint[1].equals(String.valueOf(computeChecksum(getPathsFileForAuthor(author, output))))){
+					log.warn("Checkpoint for " + checkpoint[0] + " does not match its paths file in " + 
+							output.configuration + ", resuming from there");
+					break;
+				}
+				journaledAuthors.add(checkpoint[0]);
 			}
 		}
-		int numberOfFiles = dir.listFiles().length;
-		log.info(numberOfFiles + " files written to output! Done!!");
+		return journaledAuthors;
 	}
 
 	/**
-	 * The main method of this class
+	 * Rewrites a file keeping only the lines that start with one of the authors
+	 * @param file
+	 * @param authors
 	 */
-	public void run() {
-		cleanUpOutputDir();
-		log.info("Beginning to explore collaborations for authors...");
-		try{
-			pwForCollabs = new PrintWriter(new File(OUTPUT_COLLAB_AUTHORS_DIR_LOC));
-			pwForStrongerCollabs = new PrintWriter(new File(STRONGER_COLLAB_AUTHORS_DIR_LOC));
-			printCompletePathsForEveryAuthorToFile();
+	private void keepLinesOfAuthors(File file, Set<String> authors) {
+		if(!file.exists()){
+			return;
+		}
+		List<String> lines = new ArrayList<String>();
+		BufferedReader br = null;
+		PrintWriter pw = null;
+		try {
+			br = new BufferedReader(new FileReader(file));
+			String line;
+			while((line = br.readLine()) != null){
+				if(authors.contains(line.split(COMMA, 2)[0])){
+					lines.add(line);
+				}
+			}
+			br.close();
+			br = null;
+			pw = new PrintWriter(file);
+			for (String keptLine : lines) {
+				pw.println(keptLine);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if(br != null){
+				try {
+					br.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if(pw != null){
+				pw.flush();
+				pw.close();
+			}
+		}
+	}
+
+	/**
+	 * Appends the part files to the output file in the given order and
+	 * deletes them
+	 * @param partFiles
+	 * @param outputFile
+	 */
+	private void concatenatePartFiles(List<File> partFiles, File outputFile) {
+		FileOutputStream fos = null;
+		try {
+			fos = new FileOutputStream(outputFile);
+			FileChannel outputChannel = fos.getChannel();
+			for (File partFile : partFiles) {
+				FileInputStream fis = new FileInputStream(partFile);
+				try {
+					FileChannel partChannel = fis.getChannel();
+					long position = 0, size = partChannel.size();
+					while (position < size) {
+						position += partChannel.transferTo(position, size - position, outputChannel);
+					}
+				} finally {
+					fis.close();
+				}
+				partFile.delete();
+			}
+		} catch (IOException ioe) {
+			log.error("IOException: Problems merging part files into " + outputFile.getName());
+			ioe.printStackTrace();
+		} finally {
+			if (fos != null) {
+				try {
+					fos.close();
+				} catch (IOException ioe) {
+					ioe.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Orders the distinct endpoints of a root author by name, the order the
+	 * collaborations files have always been written in. Only the distinct
+	 * endpoints are sorted, never the paths themselves
+	 * @param endpointCounter
+	 * @return
+	 */
+	private int[] sortEndpointsByName(EndpointCounter endpointCounter) {
+		int[] endpoints = endpointCounter.getEndpoints();
+		Integer[] boxedEndpoints = new Integer[endpoints.length];
+		for (int i = 0; i < endpoints.length; i++) {
+			boxedEndpoints[i] = endpoints[i];
+		}
+		Arrays.sort(boxedEndpoints, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer node1, Integer node2) {
+				return graph.getName(node1).compareTo(graph.getName(node2));
+			}
+		});
+		for (int i = 0; i < endpoints.length; i++) {
+			endpoints[i] = boxedEndpoints[i];
+		}
+		return endpoints;
+	}
+
+	/**
+	 * Find pairs of authors who occur together more than once at the ends
+	 * of paths explored by the algorithm and add them to file.
+	 * Every author at the end of more than one written path of the root author
+	 * gets a line root,author,paths, in the order of the author names. The
+	 * sorted scan this replaced never moved past an author at the end of
+	 * only one path, and never printed the last author, so it missed most
+	 * pairs: the file is now a superset of what that scan wrote, with the
+	 * same counts for the pairs both write
+	 * @param rootAuthor
+	 * @param endpoints the distinct endpoints, sorted by name
+	 * @param endpointCounter
+	 * @param pwForStrongerCollabs
+	 */
+	private void printStrongerCollaborationsToFile(int rootAuthor, int[] endpoints, EndpointCounter endpointCounter, 
+			PrintWriter pwForStrongerCollabs) {
+		String firstAuthor = graph.getName(rootAuthor);
+		for (int endpoint : endpoints) {
+			int occurrenceCount = endpointCounter.get(endpoint);
+			if(occurrenceCount > 1){
+				pwForStrongerCollabs.println(firstAuthor + "," + graph.getName(endpoint) + "," + occurrenceCount);
+			}
+		}
+	}
+
+	/**
+	 * A method to convert the collaborating authors of a root author to a 
+	 * comma delimited string, root author first
+	 * @param rootAuthor
+	 * @param endpoints the distinct endpoints, sorted by name
+	 * @return
+	 */
+	private String convertCollaboratingAuthorListToCommaDelimitedString(int rootAuthor, int[] endpoints) {
+		log.debug("Writing " + (endpoints.length + 1) + " collaborating authors for " + graph.getName(rootAuthor));
+		StringBuilder cds = new StringBuilder(graph.getName(rootAuthor));
+		for (int endpoint : endpoints) {
+			cds.append(COMMA).append(graph.getName(endpoint));
+		}
+		return cds.toString();
+	}
+
+
+	/**
+	 * This method generates all the paths for the given author The generated
+	 * paths are written to an output file
+	 * 
+	 * @param author
+	 * @return the collaborating authors found by the search
+	 */
+	private SearchState generatePathsForAuthor(int author) {
+		return generatePaths(author, -1, getPathsFilesForAuthor(author));
+	}
+
+	private File getPathsFileForAuthor(int author, ConfigurationOutput output) {
+		return new File(output.pathsDirLoc + PATHS_OUTPUT_FILE_STR + 
+				graph.getName(author) + (writeTriePaths ? TRIE_FILE_EXTN : writeBinaryPaths ? BIN_FILE_EXTN : CSV_FILE_EXTN));
+	}
+
+	/**
+	 * @param author
+	 * @return the paths file of the author for every configuration, in order
+	 */
+	private File[] getPathsFilesForAuthor(int author) {
+		File[] files = new File[outputs.size()];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = getPathsFileForAuthor(author, outputs.get(i));
+		}
+		return files;
+	}
+
+	/**
+	 * Generates the paths of the given author and writes them to the output files,
+	 * one for every configuration. If a keyword index is given, only the paths 
+	 * that start with that keyword are generated
+	 * @param author
+	 * @param kwIndex - position of the first keyword in the CSR neighbors array, or -1 for all
+	 * @param outputFiles
+	 * @return
+	 */
+	private SearchState generatePaths(int author, int kwIndex, File[] outputFiles) {
+		SearchState state = new SearchState(author, outputs.size(), graph.getNodeCount(), degreesOfSeparation);
+		initTopPaths(state);
+		if(topK > 0){
+			//the best paths are only known once the search is over
+			searchPaths(state, kwIndex);
+			if(outputFiles != null){
+				printTopPathsToFile(state, outputFiles[0]);
+			}
+			return state;
+		}
+		try {
+			for (int i = 0; i < outputFiles.length; i++) {
+				state.pathSinks[i] = pathWriter.open(outputFiles[i]);
+				if(writesEncodedPaths()){
+					state.pathEncoders[i] = createPathEncoder(state.pathSinks[i]);
+				}
+			}
+			searchPaths(state, kwIndex);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally{
+			for (int i = 0; i < outputFiles.length; i++) {
+				if(state.pathEncoders[i] != null){
+					state.pathEncoders[i].close();
+				} else if(state.pathSinks[i] != null){
+					state.pathSinks[i].close();
+				}
+			}
+		}
+		return state;
+	}
+
+	private void searchPaths(SearchState state, int kwIndex) {
+		if(kwIndex < 0){
+			extendPath(state, 0, 0.0, Double.POSITIVE_INFINITY, -1, 0);
+		} else {
+			extendPathWithKeyword(state, 0, 0.0, Double.POSITIVE_INFINITY, -1, 0, graph.getNeighbors()[kwIndex]);
+		}
+		publishMetrics(state);
+	}
+
+	/**
+	 * Adds the counts of a search since it last added them to the metrics
+	 * @param state
+	 */
+	private void publishMetrics(SearchState state) {
+		metrics.addSearch(state.expandedPathCounts, state.emittedPathCount, state.rejectedPathCount,
+				state.prunedBranchCount - state.publishedPrunedBranchCount);
+		Arrays.fill(state.expandedPathCounts, 0);
+		state.emittedPathCount = 0;
+		state.rejectedPathCount = 0;
+		state.publishedPrunedBranchCount = state.prunedBranchCount;
+	}
+
+	private void initTopPaths(SearchState state) {
+		if(topK > 0){
+			if(topKPerAuthorPair){
+				state.topPathsByEndpoint = new HashMap<Integer, TopPathHeap>();
+			} else {
+				state.topPaths = new TopPathHeap(topK);
+			}
+		}
+	}
+
+	/**
+	 * Keeps the completed path on the stack if it is one of the best
+	 * paths of the author, or of the author pair
+	 * @param state
+	 * @param pathMetric
+	 */
+	private void offerToTopPaths(SearchState state, double pathMetric) {
+		TopPathHeap heap = state.topPaths;
+		if(topKPerAuthorPair){
+			heap = state.topPathsByEndpoint.get(state.peek());
+			if(heap == null){
+				heap = new TopPathHeap(topK);
+				state.topPathsByEndpoint.put(state.peek(), heap);
+			}
+		}
+		heap.offer(pathMetric, state.pathStack, state.pathLength);
+	}
+
+	/**
+	 * Adds the best paths found by a subtask to those of the whole author
+	 * @param state
+	 * @param subtaskState
+	 */
+	private void mergeTopPaths(SearchState state, SearchState subtaskState) {
+		if(subtaskState.topPaths != null){
+			state.topPaths.offerAll(subtaskState.topPaths);
+		}
+		if(subtaskState.topPathsByEndpoint != null){
+			for (Entry<Integer, TopPathHeap> entry : subtaskState.topPathsByEndpoint.entrySet()) {
+				TopPathHeap heap = state.topPathsByEndpoint.get(entry.getKey());
+				if(heap == null){
+					state.topPathsByEndpoint.put(entry.getKey(), entry.getValue());
+				} else {
+					heap.offerAll(entry.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the best paths of the author to file from best to worst, grouped
+	 * by the name of the author at the end of the path in per-pair mode. The 
+	 * ends of the paths written become the collaborating authors
+	 * @param state
+	 * @param outputFile
+	 */
+	private void printTopPathsToFile(SearchState state, File outputFile) {
+		List<TopPathHeap> heaps = new ArrayList<TopPathHeap>();
+		if(state.topPaths != null){
+			heaps.add(state.topPaths);
+		} else {
+			List<Integer> endpoints = new ArrayList<Integer>(state.topPathsByEndpoint.keySet());
+			Collections.sort(endpoints, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a1, Integer a2) {
+					return graph.getName(a1).compareTo(graph.getName(a2));
+				}
+			});
+			for (int endpoint : endpoints) {
+				heaps.add(state.topPathsByEndpoint.get(endpoint));
+			}
+		}
+		PrintWriter pw = null;
+		PathEncoder encoder = null;
+		long writtenPathCount = 0;
+		try {
+			if(writesEncodedPaths()){
+				encoder = createPathEncoder(pathWriter.open(outputFile));
+			} else {
+				pw = new PrintWriter(outputFile);
+			}
+			for (TopPathHeap heap : heaps) {
+				heap.sortDescending();
+				for (int i = 0; i < heap.size(); i++) {
+					int[] path = heap.getPath(i);
+					int length = heap.getPathLength(i);
+					if(encoder != null){
+						encoder.writePath(path, length, heap.getMetric(i));
+					} else {
+						pw.println(pathToString(path, length, heap.getMetric(i)));
+					}
+					state.endpointCounters[0].increment(path[length - 1]);
+					++writtenPathCount;
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if(pw != null){
+				pw.flush();
+				pw.close();
+			}
+			if(encoder != null){
+				encoder.close();
+			}
+		}
+		metrics.addEmittedPaths(writtenPathCount);
+	}
+
+	/**
+	 * Sorts the keywords of every author by descending weight for the top-K search
+	 */
+	private void sortKeywordsByWeight() {
+		int[] offsets = graph.getOffsets();
+		keywordsByWeight = graph.getNeighbors().clone();
+		Integer[] keywords;
+		for (int author = 0; author < graph.getAuthorCount(); author++) {
+			keywords = new Integer[graph.getDegree(author)];
+			for (int i = 0; i < keywords.length; i++) {
+				keywords[i] = keywordsByWeight[offsets[author] + i];
+			}
+			Arrays.sort(keywords, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer kw1, Integer kw2) {
+					return Double.compare(keywordWeights[kw2], keywordWeights[kw1]);
+				}
+			});
+			for (int i = 0; i < keywords.length; i++) {
+				keywordsByWeight[offsets[author] + i] = keywords[i];
+			}
+		}
+	}
+
+	/**
+	 * The most crucial method in the class. Extends paths recursively with valid 
+	 * author-keyword combinations. If the path is complete (adequate number of
+	 * keywords) for a configuration, it invokes a method to write the path to file.
+	 * The path being built is the stack held in the search state
+	 * @param state
+	 * @param dosCount
+	 * @param pathMetric - the metric of the path so far
+	 * @param minKeywordWeight - the weight of the lightest keyword on the path so far
+	 * @param previousKw - the last keyword on the path, or -1 if there is none yet
+	 * @param hierarchiesOnPath - bitmask of the hierarchies the keywords on the path came from
+	 */
+	private void extendPath(SearchState state, int dosCount, double pathMetric, 
+			double minKeywordWeight, int previousKw, int hierarchiesOnPath){
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = topK > 0 ? keywordsByWeight : graph.getNeighbors();
+		int authorToExtend = state.peek();
+		++state.expandedPathCounts[dosCount];
+		if((++state.expandedPathCount & (METRICS_PUBLISH_EXPANSIONS - 1)) == 0){
+			publishMetrics(state);
+		}
+		
+		if(dosCount > 0){
+			routePath(state, dosCount, pathMetric, minKeywordWeight);
+		}
+		if(dosCount == degreesOfSeparation){
+			return;
+		}
+		
+		// an author with no keywords, or a keyword with no authors, has an empty range
+		for (int kwIndex = offsets[authorToExtend]; kwIndex < offsets[authorToExtend + 1]; kwIndex++) {
+			extendPathWithKeyword(state, dosCount, pathMetric, minKeywordWeight, previousKw, hierarchiesOnPath, neighbors[kwIndex]);
+		}
+	}
+
+	/**
+	 * Writes the path on the stack to the paths file of every configuration
+	 * that accepts it. In a sweep a path can be complete for one configuration
+	 * while it is still extended for another with more degrees of separation
+	 * @param state
+	 * @param dosCount
+	 * @param pathMetric
+	 * @param minKeywordWeight
+	 */
+	private void routePath(SearchState state, int dosCount, double pathMetric, double minKeywordWeight) {
+		boolean isEncoded = false;
+		boolean isAccepted = false;
+		for (int i = 0; i < outputs.size(); i++) {
+			if(outputs.get(i).configuration.accepts(dosCount, minKeywordWeight, pathMetric)){
+				isAccepted = true;
+				if(topK > 0){
+					offerToTopPaths(state, pathMetric);
+					continue;
+				}
+				if(state.pathEncoders[i] != null){
+					state.pathEncoders[i].writePath(state.pathStack, state.pathLength, pathMetric);
+				} else {
+					if(!isEncoded){
+						encodePath(state, pathMetric);
+						isEncoded = true;
+					}
+					state.pathSinks[i].write(state.lineBytes, state.lineLength);
+				}
+				state.endpointCounters[i].increment(state.peek());
+			}
+		}
+		if(isAccepted && topK == 0){
+			++state.emittedPathCount; //once, however many configurations write it
+		} else if(!isAccepted && dosCount == degreesOfSeparation){
+			++state.rejectedPathCount;
+		}
+	}
+
+	/**
+	 * Encodes the path on the stack into the line buffer of the search, as the
+	 * bytes of the line pathToString would return for it, trimmed and followed
+	 * by a line separator
+	 * @param state
+	 * @param pathMetric
+	 */
+	private void encodePath(SearchState state, double pathMetric) {
+		String metric = Double.toString(pathMetric);
+		state.lineLength = 0;
+		ensureLineCapacity(state, metric.length());
+		for (int i = 0; i < metric.length(); i++) {
+			state.lineBytes[state.lineLength++] = (byte) metric.charAt(i);
+		}
+		for (int i = 0; i < state.pathLength; i++) {
+			byte[] name = nameBytes[state.pathStack[i]];
+			ensureLineCapacity(state, name.length + 1);
+			state.lineBytes[state.lineLength++] = ',';
+			System.arraycopy(name, 0, state.lineBytes, state.lineLength, name.length);
+			state.lineLength += name.length;
+		}
+		while((state.lineBytes[state.lineLength - 1] & 0xff) <= ' '){
+			--state.lineLength;
+		}
+		ensureLineCapacity(state, LINE_SEPARATOR_BYTES.length);
+		System.arraycopy(LINE_SEPARATOR_BYTES, 0, state.lineBytes, state.lineLength, LINE_SEPARATOR_BYTES.length);
+		state.lineLength += LINE_SEPARATOR_BYTES.length;
+	}
+
+	private void ensureLineCapacity(SearchState state, int extraBytes) {
+		if(state.lineLength + extraBytes > state.lineBytes.length){
+			state.lineBytes = Arrays.copyOf(state.lineBytes, 2 * (state.lineLength + extraBytes));
+		}
+	}
+
+	/**
+	 * Checks whether a path that has just reached its next author can still
+	 * end up in the output of any configuration, given that every remaining
+	 * hop adds at most maxMetricPerHop to its metric
+	 * @param dosCount - the degrees of separation of the path
+	 * @param pathMetric
+	 * @param minKeywordWeight
+	 * @return
+	 */
+	private boolean canReachAnyConfiguration(int dosCount, double pathMetric, double minKeywordWeight) {
+		for (ConfigurationOutput output : outputs) {
+			PathConfiguration configuration = output.configuration;
+			int remainingHops = configuration.getDegreesOfSeparation() - dosCount;
+			if(remainingHops >= 0 && minKeywordWeight >= configuration.getKeywordWeightageThreshold() &&
+					pathMetric + remainingHops * maxMetricPerHop >= configuration.getPathWeightageThreshold()){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param state
+	 * @param kw
+	 * @return the number of authors the path could be extended to through the keyword
+	 */
+	private int countValidNextAuthors(SearchState state, int kw) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int validAuthorCount = 0;
+		for (int authorIndex = offsets[kw]; authorIndex < offsets[kw + 1]; authorIndex++) {
+			if (nextAuthorIsValid(state, neighbors[authorIndex])) {
+				++validAuthorCount;
+			}
+		}
+		return validAuthorCount;
+	}
+
+	/**
+	 * Extends the path with the given keyword and every valid author of that keyword.
+	 * The metric is updated the same way pathToString used to compute it; if even
+	 * the best possible remaining hops cannot lift it to the path weightage threshold
+	 * of any configuration, or above the worst of the top paths once they are full,
+	 * the whole branch is cut before any author is expanded
+	 * @param state
+	 * @param dosCount
+	 * @param pathMetric
+	 * @param minKeywordWeight
+	 * @param previousKw
+	 * @param hierarchiesOnPath
+	 * @param kw
+	 */
+	private void extendPathWithKeyword(SearchState state, int dosCount, 
+			double pathMetric, double minKeywordWeight, int previousKw, int hierarchiesOnPath, int kw){
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		
+		if (kwIsValid(state, kw, hierarchiesOnPath)) {
+			double extendedMetric = pathMetric + keywordWeights[kw];
+			if(previousKw >= 0){
+				extendedMetric += headingDistances[keywordHeadingIds[kw]][keywordHeadingIds[previousKw]];
+			}
+			double extendedMinKeywordWeight = Math.min(minKeywordWeight, keywordWeights[kw]);
+			int remainingHops = degreesOfSeparation - dosCount - 1;
+			double bestPossibleMetric = extendedMetric + remainingHops * maxMetricPerHop;
+			boolean isBelowThreshold = !canReachAnyConfiguration(dosCount + 1, extendedMetric, extendedMinKeywordWeight);
+			if(isBelowThreshold || 
+					(state.topPaths != null && state.topPaths.isFull() && bestPossibleMetric < state.topPaths.getFloor())){
+				if(isBelowThreshold && remainingHops == 0){
+					//complete paths, not a branch: one for every author the keyword leads to
+					state.rejectedPathCount += countValidNextAuthors(state, kw);
+				} else {
+					++state.prunedBranchCount;
+				}
+				return;
+			}
+			int extendedHierarchies = hierarchiesOnPath | keywordHierarchyMasks[kw];
+			state.removedExpansionCount += hubRemovedFanOuts[kw];
+			state.push(kw);
+			for (int authorIndex = offsets[kw]; authorIndex < offsets[kw + 1]; authorIndex++) {
+				int nextAuthor = neighbors[authorIndex];
+				if (nextAuthorIsValid(state, nextAuthor)) {
+					state.push(nextAuthor);
+					extendPath(state, dosCount + 1, extendedMetric, extendedMinKeywordWeight, kw, extendedHierarchies);
+					state.pop();
+				}
+			}
+			state.pop();
+		}
+	}
+
+	/**
+	 * To check a host of conditions for keyword. In divergent mode every keyword
+	 * on a path must come from a different hierarchy, which is a single AND
+	 * against the hierarchies already on the path
+	 * @param state
+	 * @param kw
+	 * @param hierarchiesOnPath
+	 * @return
+	 */
+	private boolean kwIsValid(SearchState state, int kw, int hierarchiesOnPath) {
+		boolean keywordIsBasicallyValid = keywordIsUsable[kw] && !state.isOnPath(kw);
+		if(keywordIsBasicallyValid && useDivergentKeywords){
+			return (hierarchiesOnPath & keywordConflictMasks[kw]) == 0;
+		}
+		return keywordIsBasicallyValid;
+	}
+
+	/**
+	 * A method to make sure the next author is: a) not a blank, b) not 
+	 * on the path already, c) not an author we have seen before, and d) not an
+	 * OSU author either
+	 * 
+	 * @param state
+	 * @param nextAuthor
+	 * @return
+	 */
+	private boolean nextAuthorIsValid(SearchState state, int nextAuthor) {
+		return (authorIsExtensible[nextAuthor] && !state.isOnPath(nextAuthor)
+				&& !authorsFinishedWith[nextAuthor]);
+	}
+
+	/**
+	 * Method to generate a text representation of a generated path Format is
+	 * [AUTHOR]->[KEYWORD1]->[AUTHOR2]->[KEYWORD2]->...
+	 * If path weight (metric) is less than the preset threshold, a blank string
+	 * is returned. The metric is accumulated hop by hop during the search
+	 * @param path
+	 * @param pathLength
+	 * @param pathMetric
+	 * @return
+	 */
+	private String pathToString(int[] path, int pathLength, double pathMetric) {
+		if(pathMetric < pathWeightageThreshold){
+			return "";
+		}
+		StringBuilder line = new StringBuilder();
+		line.append(pathMetric);
+		for (int i = 0; i < pathLength; i++) {
+			line.append(COMMA).append(graph.getName(path[i]));
+		}
+		return line.toString();
+	}
+
+	/**
+	 * This method finds the heading a keyword is classified under
+	 * @param word
+	 * @return
+	 */
+	private String findHeadingForKeyword(String word) {
+		String heading = "";
+		if(mapOfKeywordsToWeightAndHier.containsKey(word)){
+			List<String> weightAndHierList = mapOfKeywordsToWeightAndHier.get(word);
+			String completeHierarchy = weightAndHierList.get(1);
+			String[] completeHierarchyComponents = completeHierarchy.split(":");
+			heading = completeHierarchyComponents[0];
+		}
+		return heading;
+	}
+
+	/**
+	 * This method deletes ALL files from the 
+	 * output directory of every configuration. If a directory
+	 * does not exist, creates it
+	 */
+	private void cleanUpOutputDir(){
+		createOutputDirs();
+		for (ConfigurationOutput output : outputs) {
+			for(File file : new File(output.pathsDirLoc).listFiles()){
+					file.delete();
+			}
+		}
+	}
+
+	/**
+	 * This method creates the output directory of every
+	 * configuration that does not exist yet
+	 */
+	private void createOutputDirs(){
+		for (ConfigurationOutput output : outputs) {
+			File dir = new File(output.pathsDirLoc);
+			if(!dir.exists()){
+				dir.mkdirs();
+			}
+		}
+	}
+
+	/**
+	 * This method eliminates all the empty files from
+	 * the output directory of every configuration
+	 */
+	private void cleanUpOutputDirOfEmptyFiles(){
+		for (ConfigurationOutput output : outputs) {
+			File dir = new File(output.pathsDirLoc);
+			for(File file : dir.listFiles()){
+				if(file.length() == 0){
+					file.delete();
+				}
+			}
+			int numberOfFiles = dir.listFiles().length;
+			log.info(numberOfFiles + " files written to output for " + output.configuration + "! Done!!");
+		}
+	}
+
+	/**
+	 * This method counts the paths from every OSU author to every other 
+	 * author by degrees of separation and prints the counts to file, one
+	 * line per pair of authors: root,author,count at DOS 1,...,count at DOS N.
+	 * The counts are upper bounds, see PathCounter
+	 */
+	private void printPathCountsForEveryAuthorToFile() {
+		for (ConfigurationOutput output : outputs) {
+			printPathCountsForEveryAuthorToFile(output);
+		}
+	}
+
+	private void printPathCountsForEveryAuthorToFile(ConfigurationOutput output) {
+		PathConfiguration configuration = output.configuration;
+		PathCounter counter = new PathCounter(graph, authorIsExtensible, authorsFinishedWith, 
+				findUsableKeywords(configuration.getKeywordWeightageThreshold()), 
+				useDivergentKeywords ? keywordHierarchyMasks : null, 
+				useDivergentKeywords ? keywordConflictMasks : null, configuration.getDegreesOfSeparation());
+		PrintWriter pwForCounts = null;
+		try {
+			pwForCounts = new PrintWriter(new File(output.pathsDirLoc + PATH_COUNTS_FILE_STR + CSV_FILE_EXTN));
+			for (int author = 0; author < graph.getAuthorCount(); author++) {
+				if (authorIsRoot[author]) {
+					long[][] counts = counter.countPathsFromAuthor(author);
+					for (int endpoint = 0; endpoint < graph.getAuthorCount(); endpoint++) {
+						StringBuilder line = new StringBuilder();
+						boolean isReachable = false;
+						line.append(graph.getName(author)).append(COMMA).append(graph.getName(endpoint));
+						for (long[] countsAtLevel : counts) {
+							line.append(COMMA).append(countsAtLevel[endpoint]);
+							isReachable |= countsAtLevel[endpoint] > 0;
+						}
+						if (isReachable) {
+							pwForCounts.println(line);
+						}
+					}
+				}
+			}
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		} finally {
+			if (pwForCounts != null) {
+				pwForCounts.flush();
+				pwForCounts.close();
+			}
+		}
+	}
+
+	/**
+	 * This method ranks the collaborators of every root author by a random
+	 * walk with restart and writes the best of them, best first, in the format
+	 * of the collaborations file to output/<mode>/RWR-<method>/
+	 */
+	private void printRankedCollaboratorsToFile() {
+		String rankingDirLoc = OUTPUT_STR + DIRPATH_SEPARATOR + (useDivergentKeywords ? DIVERGENT_STR : NON_DIVERGENT_STR) + 
+				DIRPATH_SEPARATOR + RANKING_DIR_STR + rankingMethod + DIRPATH_SEPARATOR;
+		new File(rankingDirLoc).mkdirs();
+		RandomWalkRanker ranker = new RandomWalkRanker(graph, authorIsExtensible, keywordIsUsable, keywordWeights, 
+				keywordHeadingIds, headingDistances, RANKING_SEED);
+		PrintWriter pwForRankings = null;
+		try {
+			pwForRankings = new PrintWriter(new File(rankingDirLoc + COLLAB_PAIRS_FILE_STR + CSV_FILE_EXTN));
+			for (int author = 0; author < graph.getAuthorCount(); author++) {
+				if (authorIsRoot[author]) {
+					int[] collaborators = ranker.rankCollaborators(author, rankingMethod, rankedCollaboratorCount);
+					if (collaborators.length == 0) {
+						continue;
+					}
+					StringBuilder line = new StringBuilder(graph.getName(author));
+					for (int collaborator : collaborators) {
+						line.append(COMMA).append(graph.getName(collaborator));
+					}
+					pwForRankings.println(line);
+				}
+			}
+		} catch (IOException ioe) {
+			log.error("IOException: Problems writing ranked collaborators");
+			ioe.printStackTrace();
+		} finally {
+			if (pwForRankings != null) {
+				pwForRankings.flush();
+				pwForRankings.close();
+			}
+		}
+	}
+
+	/**
+	 * The main method of this class
+	 */
+	public void run() {
+		if(rankingMethod != null){
+			log.info("Ranking collaborators for authors...");
+			printRankedCollaboratorsToFile();
+			return;
+		}
+		if(countPathsOnly){
+			//counting never writes paths, so the paths of earlier runs are kept
+			createOutputDirs();
+			log.info("Counting paths for authors...");
+			printPathCountsForEveryAuthorToFile();
+			return;
+		}
+		if(resume){
+			resumeFromCheckpoint();
+		} else {
+			cleanUpOutputDir();
+		}
+		if(topK > 0 && outputs.size() > 1){
+			log.warn("The top paths are not kept in a sweep, writing out every path");
+			topK = 0;
+		}
+		if(topK > 0){
+			sortKeywordsByWeight();
+			log.info("Keeping the best " + topK + " paths of every " + (topKPerAuthorPair ? "author pair" : "author"));
+		}
+		log.info("Beginning to explore collaborations for authors...");
+		encodeNames();
+		pathWriter = new AsyncPathWriter(PATH_WRITER_SLOTS, PATH_WRITER_BUFFER_BYTES);
+		metrics = new PathFinderMetrics(degreesOfSeparation, countAuthorsToExplore());
+		metrics.start(METRICS_LOG_INTERVAL_SECONDS);
+		try{
+			for (ConfigurationOutput output : outputs) {
+				output.pwForCollabs = new PrintWriter(new FileOutputStream(output.collabAuthorsFileLoc, resume));
+				output.pwForStrongerCollabs = new PrintWriter(new FileOutputStream(output.strongerCollabAuthorsFileLoc, resume));
+				output.pwForCheckpoints = new PrintWriter(new FileOutputStream(output.pathsDirLoc + CHECKPOINT_FILE_STR, resume));
+			}
+			printCompletePathsForEveryAuthorToFile();
+			log.info("Pruned " + prunedBranchCount + " branches that could not reach the path threshold");
+			if(graph != fullGraph){
+				log.info("The hub policy " + hubPolicy + " removed " + removedExpansionCount + " keyword expansions");
+			}
+			//the collaborations files have to be on disk before empty files are cleaned up
+			closeCollaborationFiles();
 			cleanUpOutputDirOfEmptyFiles();
 		} catch(IOException ioe){
 			log.error("IOException: Problems opening file for writing collaborating author pairs");
 			ioe.printStackTrace();
 		} finally{
-			if (pwForCollabs != null){
-				pwForCollabs.flush();
-				pwForCollabs.close();
+			closeCollaborationFiles();
+			pathWriter.shutdown();
+			metrics.stop();
+		}
+	}
+
+	private int countAuthorsToExplore() {
+		int rootAuthorCount = 0;
+		for (int author = 0; author < graph.getAuthorCount(); author++) {
+			if (authorIsRoot[author] && !authorsFinishedWith[author]) {
+				++rootAuthorCount;
+			}
+		}
+		return rootAuthorCount;
+	}
+
+	/**
+	 * Encodes the name of every node, in the platform charset like the
+	 * PrintWriters used to, or in UTF-8 for the binary and trie paths files
+	 */
+	private void encodeNames() {
+		Charset charset = writesEncodedPaths() ? Charset.forName("UTF-8") : Charset.defaultCharset();
+		nameBytes = new byte[graph.getNodeCount()][];
+		for (int node = 0; node < nameBytes.length; node++) {
+			nameBytes[node] = graph.getName(node).getBytes(charset);
+		}
+	}
+
+	private void closeCollaborationFiles() {
+		for (ConfigurationOutput output : outputs) {
+			if (output.pwForCollabs != null){
+				output.pwForCollabs.flush();
+				output.pwForCollabs.close();
+				output.pwForCollabs = null;
+			}
+			if(output.pwForStrongerCollabs != null){
+				output.pwForStrongerCollabs.flush();
+				output.pwForStrongerCollabs.close();
+				output.pwForStrongerCollabs = null;
 			}
-			if(pwForStrongerCollabs != null){
-				pwForStrongerCollabs.flush();
-				pwForStrongerCollabs.close();
+			if(output.pwForCheckpoints != null){
+				output.pwForCheckpoints.flush();
+				output.pwForCheckpoints.close();
+				output.pwForCheckpoints = null;
 			}
 		}
 	}
 
+	/**
+	 * This method finds the paths from one author to another at the 
+	 * current thresholds, searching from both authors and meeting in the
+	 * middle instead of enumerating every path of the first author
+	 * @param fromAuthor
+	 * @param toAuthor
+	 * @return the paths in the format of the paths files, best first
+	 */
+	public List<String> findPathsBetween(String fromAuthor, String toAuthor) {
+		if(pairwiseQuery == null){
+			pairwiseQuery = new PairwisePathQuery(graph, authorIsExtensible, keywordIsUsable, keywordWeights,
+					keywordHeadingIds, headingDistances, useDivergentKeywords ? keywordHierarchyMasks : null,
+					useDivergentKeywords ? keywordConflictMasks : null, maxMetricPerHop);
+		}
+		return pairwiseQuery.findPaths(fromAuthor, toAuthor, degreesOfSeparation, pathWeightageThreshold);
+	}
+
+	/**
+	 * This method runs the depth first search of one author without writing
+	 * any of its paths, to measure the search by itself
+	 * @param author
+	 * @return the number of paths the search expanded
+	 */
+	public long countExpandedPathsForAuthor(String author) {
+		if(nameBytes == null){
+			encodeNames();
+		}
+		if(metrics == null){
+			metrics = new PathFinderMetrics(degreesOfSeparation, 0);
+		}
+		if(topK > 0 && keywordsByWeight == null){
+			sortKeywordsByWeight();
+		}
+		SearchState state = new SearchState(graph.getAuthorId(author), outputs.size(), graph.getNodeCount(), degreesOfSeparation);
+		initTopPaths(state);
+		for (int i = 0; i < outputs.size(); i++) {
+			state.pathSinks[i] = DISCARDING_SINK;
+		}
+		searchPaths(state, -1);
+		return state.expandedPathCount;
+	}
+
+	/**
+	 * This method finds the best paths of one author at the current 
+	 * thresholds with a best first search, which stops as soon as no other
+	 * path can beat them. These are the paths topK=pathCount would keep.
+	 * The search runs once, at the lowest path threshold and the most
+	 * degrees of separation of the configurations, not once per configuration
+	 * of a sweep
+	 * @param author
+	 * @param pathCount
+	 * @return the paths in the format of the paths files, best first
+	 */
+	public List<String> findBestPathsFromAuthor(String author, int pathCount) {
+		if(bestFirstSearch == null){
+			bestFirstSearch = new BestFirstPathSearch(graph, authorIsExtensible, keywordIsUsable, keywordWeights,
+					keywordHeadingIds, headingDistances, useDivergentKeywords ? keywordHierarchyMasks : null,
+					useDivergentKeywords ? keywordConflictMasks : null, maxMetricPerHop);
+		}
+		List<String> paths = bestFirstSearch.findBestPaths(author, pathCount, degreesOfSeparation, pathWeightageThreshold);
+		log.debug("Expanded " + bestFirstSearch.getExpandedEntryCount() + " partial paths of " + author);
+		return paths;
+	}
+
+	/**
+	 * Applies a hub policy to the full graph and keyword weights. Every
+	 * search from now on, including path counts and pairwise queries, sees
+	 * the graph and weights the policy leaves behind
+	 * @param hubPolicy
+	 */
+	public void setHubPolicy(KeywordHubPolicy hubPolicy) {
+		this.hubPolicy = hubPolicy;
+		graph = hubPolicy.restrictFanOut(fullGraph);
+		keywordWeights = hubPolicy.weightKeywords(fullGraph, fullKeywordWeights, keywordWeightageThreshold);
+		hubRemovedFanOuts = KeywordHubPolicy.computeRemovedFanOuts(fullGraph, graph);
+		keywordIsUsable = findUsableKeywords(keywordWeightageThreshold);
+		computeMaxMetricPerHop();
+		pairwiseQuery = null;
+		bestFirstSearch = null;
+	}
+
+	/** SETTER **/
+	public void setThreadCount(int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+
+	/** SETTER **/
+	public void setTopK(int topK) {
+		this.topK = Math.max(0, topK);
+	}
+
+	/** SETTER **/
+	public void setTopKPerAuthorPair(boolean topKPerAuthorPair) {
+		this.topKPerAuthorPair = topKPerAuthorPair;
+	}
+
+	/** SETTER **/
+	public void setCountPathsOnly(boolean countPathsOnly) {
+		this.countPathsOnly = countPathsOnly;
+	}
+
+	/** SETTER **/
+	public void setWriteBinaryPaths(boolean writeBinaryPaths) {
+		this.writeBinaryPaths = writeBinaryPaths;
+	}
+
+	/** SETTER **/
+	public void setWriteTriePaths(boolean writeTriePaths) {
+		this.writeTriePaths = writeTriePaths;
+	}
+
+	/**
+	 * Ranks collaborators instead of enumerating paths
+	 * @param rankingMethod - null to enumerate paths
+	 * @param rankedCollaboratorCount - how many collaborators of every author to write
+	 */
+	public void setRanking(RandomWalkRanker.Method rankingMethod, int rankedCollaboratorCount) {
+		this.rankingMethod = rankingMethod;
+		this.rankedCollaboratorCount = rankedCollaboratorCount;
+	}
+
+	/** SETTER **/
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * Sets the configurations to write paths out for. The graph is traversed
+	 * at the loosest thresholds among them: the lowest keyword and path
+	 * weightage thresholds and the most degrees of separation
+	 * @param configurations
+	 */
+	public void setPathConfigurations(List<PathConfiguration> configurations) {
+		String modeDirLoc = OUTPUT_STR + DIRPATH_SEPARATOR + 
+				(useDivergentKeywords ? DIVERGENT_STR : NON_DIVERGENT_STR) + DIRPATH_SEPARATOR;
+		outputs = new ArrayList<ConfigurationOutput>();
+		degreesOfSeparation = 0;
+		pathWeightageThreshold = Double.POSITIVE_INFINITY;
+		keywordWeightageThreshold = Double.POSITIVE_INFINITY;
+		for (PathConfiguration configuration : configurations) {
+			outputs.add(new ConfigurationOutput(configuration, modeDirLoc));
+			degreesOfSeparation = Math.max(degreesOfSeparation, configuration.getDegreesOfSeparation());
+			pathWeightageThreshold = Math.min(pathWeightageThreshold, configuration.getPathWeightageThreshold());
+			keywordWeightageThreshold = Math.min(keywordWeightageThreshold, configuration.getKeywordWeightageThreshold());
+		}
+		keywordIsUsable = findUsableKeywords(keywordWeightageThreshold);
+		computeMaxMetricPerHop();
+		pairwiseQuery = null;
+		bestFirstSearch = null;
+		if(outputs.size() > 1){
+			log.info("Sweeping " + outputs.size() + " configurations " + configurations);
+		}
+	}
+
+	/**
+	 * Reads the optional name=value arguments that follow the divergent flag
+	 * on the command line, for example "threads=32", "topK=100" or 
+	 * "sweep=1.25:35.0:5,1.75:35.0:5,1.25:30.0:4" or "format=binary" or "format=trie" or
+	 * "hubPolicy=sample:50:7" or "rank=power:100" or "rank=monte_carlo:100", or
+	 * "query=GRT0001:P011" to print the paths between two authors or
+	 * "best=GRT0001:10" to print the 10 best paths of an author instead
+	 * @param args
+	 */
+	private void parseOptions(String[] args) {
+		for (int i = 1; i < args.length; i++) {
+			String[] option = args[i].split("=", 2);
+			String name = option[0];
+			String value = option.length > 1 ? option[1] : "";
+			if (name.equals("threads")) {
+				setThreadCount(value.equals("all") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value));
+			} else if (name.equals("topK")) {
+				setTopK(Integer.parseInt(value));
+			} else if (name.equals("topKPerPair")) {
+				setTopKPerAuthorPair(Boolean.parseBoolean(value));
+			} else if (name.equals("format")) {
+				setWriteBinaryPaths(value.equals("binary"));
+				setWriteTriePaths(value.equals("trie"));
+			} else if (name.equals("resume")) {
+				setResume(Boolean.parseBoolean(value));
+			} else if (name.equals("sweep")) {
+				List<PathConfiguration> configurations = new ArrayList<PathConfiguration>();
+				for (String configuration : value.split(COMMA)) {
+					configurations.add(PathConfiguration.parse(configuration));
+				}
+				setPathConfigurations(configurations);
+			} else if (name.equals("countOnly")) {
+				setCountPathsOnly(Boolean.parseBoolean(value));
+			} else if (name.equals("rank")) {
+				String[] ranking = value.split(":", 2);
+				setRanking(RandomWalkRanker.Method.valueOf(ranking[0].toUpperCase()), Integer.parseInt(ranking[1]));
+			} else if (name.equals("hubPolicy")) {
+				setHubPolicy(KeywordHubPolicy.parse(value));
+			} else if (name.equals("query") || name.equals("best")) {
+				// answered in main, without running the search
+			} else {
+				log.warn("Ignoring unknown option: " + args[i]);
+			}
+		}
+	}
+
+	/**
+	 * @param args
+	 * @param name
+	 * @return the two parts of a name=part:part option, or null
+	 */
+	private static String[] findQueryOption(String[] args, String name) {
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].startsWith(name + "=")) {
+				String[] parts = args[i].substring(name.length() + 1).split(":", 2);
+				return parts.length == 2 ? parts : null;
+			}
+		}
+		return null;
+	}
+
 	public static void main(String[] args) {
 		AcaAnaLogger.initLogger();
 		
 		PathFinder finder;
+		String[] queryAuthors = findQueryOption(args, "query");
+		String[] bestPathsQuery = findQueryOption(args, "best");
+		if(queryAuthors != null || bestPathsQuery != null){ //A QUERY WRITES NO FILES
+			finder = new PathFinder(Boolean.parseBoolean(args[0]));
+			finder.parseOptions(args);
+			long startTime = System.nanoTime();
+			List<String> paths = queryAuthors != null ? finder.findPathsBetween(queryAuthors[0], queryAuthors[1]) :
+				finder.findBestPathsFromAuthor(bestPathsQuery[0], Integer.parseInt(bestPathsQuery[1]));
+			long endTime = System.nanoTime();
+			for (String path : paths) {
+				System.out.println(path);
+			}
+			log.info("Found " + paths.size() + " paths in " + ((endTime - startTime) / 1000000) + " ms");
+			return;
+		}
 		Scanner scanIn = new Scanner(System.in);
 		String commandLineInput;
 
@@ -593,6 +2070,7 @@ public class PathFinder{
 			
 			boolean useDivergentKeywords = Boolean.parseBoolean(args[0]);
 			finder = new PathFinder(useDivergentKeywords);
+			finder.parseOptions(args);
 			finder.run();
 
 			long endTime = System.currentTimeMillis();
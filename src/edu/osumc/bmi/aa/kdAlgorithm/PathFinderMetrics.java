@@ -0,0 +1,275 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Counters and histograms of a PathFinder run, exposed as an MBean and
+ * logged at a fixed interval while the run goes on.
+ *
+ * The searches keep their counts in their own SearchState and add them here
+ * every so many expansions and once they are done, so the counters cost the
+ * search next to nothing and still show the depths an author is stuck at
+ * while it is explored. The authors being explored are listed with the
+ * time they have taken so far, which is where to look for an author that
+ * blows up. A path is emitted once when it is written, however many
+ * configurations of a sweep write it, and in top K mode once it is among
+ * the top paths written at the end of its author.
+ */
+public class PathFinderMetrics implements PathFinderMetricsMBean {
+
+	public static Logger log = Logger.getLogger(PathFinderMetrics.class);
+
+	private static final String OBJECT_NAME = "edu.osumc.bmi.aa.kdAlgorithm:type=PathFinderMetrics";
+	private static final long[] AUTHOR_TIME_BUCKET_MILLIS = { 10, 100, 1000, 10000, 100000 };
+	private static final long BYTES_PER_MEGABYTE = 1L << 20;
+
+	private AtomicLong expandedPathCount = new AtomicLong();
+	private AtomicLong emittedPathCount = new AtomicLong();
+	private AtomicLong rejectedPathCount = new AtomicLong();
+	private AtomicLong prunedBranchCount = new AtomicLong();
+	private AtomicLongArray expandedPathCountsByDepth;
+	private AtomicLongArray authorTimeHistogram = new AtomicLongArray(AUTHOR_TIME_BUCKET_MILLIS.length + 1);
+	private AtomicInteger finishedAuthorCount = new AtomicInteger();
+	private int rootAuthorCount;
+
+	private String slowestAuthor = null;
+	private long slowestAuthorMillis = 0;
+
+	/**
+	 * The start time of every author being explored, in nanoseconds
+	 */
+	private ConcurrentHashMap<String, Long> authorsInProgress = new ConcurrentHashMap<String, Long>();
+
+	private ObjectName objectName = null;
+	private ScheduledExecutorService logger = null;
+
+	/**
+	 * @param degreesOfSeparation - the deepest paths of the run
+	 * @param rootAuthorCount - the authors the run explores
+	 */
+	public PathFinderMetrics(int degreesOfSeparation, int rootAuthorCount) {
+		expandedPathCountsByDepth = new AtomicLongArray(degreesOfSeparation + 1);
+		this.rootAuthorCount = rootAuthorCount;
+	}
+
+	/**
+	 * Adds the counts of a search since it last added them
+	 * @param expandedPathCounts - by depth
+	 * @param emittedPaths
+	 * @param rejectedPaths
+	 * @param prunedBranches
+	 */
+	public void addSearch(long[] expandedPathCounts, long emittedPaths, long rejectedPaths, long prunedBranches) {
+		long expandedPaths = 0;
+		for (int depth = 0; depth < expandedPathCounts.length; depth++) {
+			if (expandedPathCounts[depth] > 0) {
+				expandedPathCountsByDepth.addAndGet(depth, expandedPathCounts[depth]);
+				expandedPaths += expandedPathCounts[depth];
+			}
+		}
+		expandedPathCount.addAndGet(expandedPaths);
+		emittedPathCount.addAndGet(emittedPaths);
+		rejectedPathCount.addAndGet(rejectedPaths);
+		prunedBranchCount.addAndGet(prunedBranches);
+	}
+
+	/**
+	 * Adds the top paths written for an author
+	 * @param emittedPaths
+	 */
+	public void addEmittedPaths(long emittedPaths) {
+		emittedPathCount.addAndGet(emittedPaths);
+	}
+
+	public void startAuthor(String author) {
+		authorsInProgress.put(author, System.nanoTime());
+	}
+
+	/**
+	 * Records the wall time of an author
+	 * @param author
+	 */
+	public void finishAuthor(String author) {
+		Long startTime = authorsInProgress.remove(author);
+		if (startTime == null) {
+			return;
+		}
+		long millis = (System.nanoTime() - startTime) / 1000000;
+		int bucket = 0;
+		while (bucket < AUTHOR_TIME_BUCKET_MILLIS.length && millis >= AUTHOR_TIME_BUCKET_MILLIS[bucket]) {
+			++bucket;
+		}
+		authorTimeHistogram.incrementAndGet(bucket);
+		finishedAuthorCount.incrementAndGet();
+		synchronized (this) {
+			if (slowestAuthor == null || millis > slowestAuthorMillis) {
+				slowestAuthor = author;
+				slowestAuthorMillis = millis;
+			}
+		}
+		log.debug("Explored the paths of " + author + " in " + millis + " ms");
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server and starts logging
+	 * them every intervalSeconds
+	 * @param intervalSeconds
+	 */
+	public void start(long intervalSeconds) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			objectName = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(this, objectName);
+		} catch (JMException e) {
+			log.error("JMException: Problems registering the PathFinder metrics");
+			e.printStackTrace();
+			objectName = null;
+		}
+		logger = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "path-finder-metrics");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		logger.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				log.info(toString());
+			}
+		}, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops logging, logs the final metrics and unregisters the MBean
+	 */
+	public void stop() {
+		if (logger != null) {
+			logger.shutdownNow();
+			logger = null;
+		}
+		log.info(toString());
+		log.info("Authors by wall time (<10ms, <100ms, <1s, <10s, <100s, longer): " +
+				Arrays.toString(getAuthorTimeHistogram()) + ", the slowest was " + getSlowestAuthor() +
+				" at " + getSlowestAuthorMillis() + " ms");
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+			objectName = null;
+		}
+	}
+
+	@Override
+	public long getExpandedPathCount() {
+		return expandedPathCount.get();
+	}
+
+	@Override
+	public long getEmittedPathCount() {
+		return emittedPathCount.get();
+	}
+
+	@Override
+	public long getRejectedPathCount() {
+		return rejectedPathCount.get();
+	}
+
+	@Override
+	public long getPrunedBranchCount() {
+		return prunedBranchCount.get();
+	}
+
+	@Override
+	public int getFinishedAuthorCount() {
+		return finishedAuthorCount.get();
+	}
+
+	@Override
+	public int getRootAuthorCount() {
+		return rootAuthorCount;
+	}
+
+	@Override
+	public long[] getExpandedPathCountsByDepth() {
+		return toArray(expandedPathCountsByDepth);
+	}
+
+	@Override
+	public long[] getAuthorTimeHistogram() {
+		return toArray(authorTimeHistogram);
+	}
+
+	@Override
+	public synchronized String getSlowestAuthor() {
+		return slowestAuthor;
+	}
+
+	@Override
+	public synchronized long getSlowestAuthorMillis() {
+		return slowestAuthorMillis;
+	}
+
+	@Override
+	public String[] getAuthorsInProgress() {
+		long now = System.nanoTime();
+		List<String> authors = new ArrayList<String>();
+		for (Entry<String, Long> entry : authorsInProgress.entrySet()) {
+			authors.add(entry.getKey() + " (" + ((now - entry.getValue()) / 1000000000L) + " s)");
+		}
+		return authors.toArray(new String[authors.size()]);
+	}
+
+	@Override
+	public long getHeapUsedMegabytes() {
+		Runtime runtime = Runtime.getRuntime();
+		return (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MEGABYTE;
+	}
+
+	@Override
+	public long getHeapMaxMegabytes() {
+		return Runtime.getRuntime().maxMemory() / BYTES_PER_MEGABYTE;
+	}
+
+	private static long[] toArray(AtomicLongArray atomicArray) {
+		long[] array = new long[atomicArray.length()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = atomicArray.get(i);
+		}
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return "Finished " + getFinishedAuthorCount() + " of " + getRootAuthorCount() + " authors; " +
+				getExpandedPathCount() + " paths expanded " + Arrays.toString(getExpandedPathCountsByDepth()) +
+				" by depth, " + getEmittedPathCount() + " emitted, " + getRejectedPathCount() +
+				" rejected by threshold, " + getPrunedBranchCount() + " branches pruned; heap " +
+				getHeapUsedMegabytes() + " of " + getHeapMaxMegabytes() + " MB; in progress " +
+				Arrays.toString(getAuthorsInProgress());
+	}
+}
@@ -0,0 +1,42 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+/**
+ * The attributes of PathFinderMetrics that are exposed through JMX
+ */
+public interface PathFinderMetricsMBean {
+
+	public long getExpandedPathCount();
+
+	public long getEmittedPathCount();
+
+	public long getRejectedPathCount();
+
+	public long getPrunedBranchCount();
+
+	public int getFinishedAuthorCount();
+
+	public int getRootAuthorCount();
+
+	/**
+	 * @return the partial paths expanded at every degree of separation
+	 */
+	public long[] getExpandedPathCountsByDepth();
+
+	/**
+	 * @return how many authors took under 10 ms, 100 ms, 1 s, 10 s, 100 s and longer
+	 */
+	public long[] getAuthorTimeHistogram();
+
+	public String getSlowestAuthor();
+
+	public long getSlowestAuthorMillis();
+
+	/**
+	 * @return the authors being explored, with how long they have taken so far
+	 */
+	public String[] getAuthorsInProgress();
+
+	public long getHeapUsedMegabytes();
+
+	public long getHeapMaxMegabytes();
+}
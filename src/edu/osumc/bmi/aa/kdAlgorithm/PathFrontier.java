@@ -0,0 +1,322 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * One level of the breadth first search of PathGenerator. Every path of a
+ * level has the same number of nodes, so the paths are packed back to back
+ * into one int array and path i starts at i * pathLength.
+ *
+ * Once the packed paths would outgrow the memory budget, they are moved to
+ * segments of a FrontierSegmentStore and every later path is appended
+ * there. A segment is only left for the next one when the next path does
+ * not fit, so every segment but the last holds the same number of paths,
+ * and a reader can start at any path of a spilled level without a scan.
+ *
+ * A level extended in parallel is stitched together out of ranges of the
+ * buffers of the workers instead, in order and without copying a path. A
+ * stitched level takes no paths of its own and owns the buffers it reads
+ */
+public class PathFrontier {
+
+	public static Logger log = Logger.getLogger(PathFrontier.class);
+
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int BYTES_PER_NODE = FrontierSegmentStore.BYTES_PER_NODE;
+
+	private int pathLength;
+	private long memoryBudget;
+	private FrontierSegmentStore segmentStore;
+
+	private int[] nodes;
+	private long size = 0;
+
+	private List<FrontierSegmentStore.Segment> segments = null;
+	private FrontierSegmentStore.Segment lastSegment = null;
+	private int pathsPerSegment;
+
+	/**
+	 * The ranges a stitched level is made of: range i is the paths
+	 * [rangeFroms[i], rangeFroms[i] + rangeStarts[i + 1] - rangeStarts[i])
+	 * of rangeFrontiers[i], and holds the paths of the level from rangeStarts[i]
+	 */
+	private PathFrontier[] rangeFrontiers = null;
+	private long[] rangeFroms;
+	private long[] rangeStarts;
+	private List<PathFrontier> ownedFrontiers = null;
+
+	/**
+	 * @param pathLength the number of nodes in every path of the level
+	 * @param memoryBudget the bytes the packed paths may take up before
+	 * they are spilled
+	 * @param segmentStore the store the paths are spilled to
+	 */
+	public PathFrontier(int pathLength, long memoryBudget, FrontierSegmentStore segmentStore) {
+		this.pathLength = pathLength;
+		this.memoryBudget = memoryBudget;
+		this.segmentStore = segmentStore;
+		pathsPerSegment = segmentStore.getSegmentSize() / ((pathLength + 1) * BYTES_PER_NODE);
+		if (pathsPerSegment == 0) {
+			throw new IllegalArgumentException("Frontier segments of " + segmentStore.getSegmentSize() + 
+					" bytes cannot hold a path of " + pathLength + " nodes");
+		}
+		long affordablePaths = memoryBudget / ((long) pathLength * BYTES_PER_NODE);
+		nodes = new int[(int) Math.max(1, Math.min(INITIAL_CAPACITY, affordablePaths)) * pathLength];
+	}
+
+	/**
+	 * Stitches a level together out of ranges of other frontiers of the
+	 * same level, without copying their paths. The level owns the frontiers
+	 * from now on and closes them when it is closed
+	 * @param frontiers the frontier of every range, in order
+	 * @param froms the first path of every range
+	 * @param tos the path after the last of every range
+	 * @param owned the distinct frontiers, to be closed with the level
+	 * @return
+	 */
+	public static PathFrontier stitch(List<PathFrontier> frontiers, long[] froms, long[] tos,
+			List<PathFrontier> owned) {
+		PathFrontier first = frontiers.get(0);
+		PathFrontier level = new PathFrontier(first.pathLength, first.segmentStore, owned);
+		level.rangeFrontiers = frontiers.toArray(new PathFrontier[frontiers.size()]);
+		level.rangeFroms = froms.clone();
+		level.rangeStarts = new long[froms.length + 1];
+		for (int i = 0; i < froms.length; i++) {
+			level.rangeStarts[i + 1] = level.rangeStarts[i] + tos[i] - froms[i];
+		}
+		level.size = level.rangeStarts[froms.length];
+		return level;
+	}
+
+	private PathFrontier(int pathLength, FrontierSegmentStore segmentStore, List<PathFrontier> ownedFrontiers) {
+		this.pathLength = pathLength;
+		this.segmentStore = segmentStore;
+		this.ownedFrontiers = ownedFrontiers;
+	}
+
+	/** GETTER **/
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public boolean isSpilled() {
+		if (ownedFrontiers != null) {
+			for (PathFrontier frontier : ownedFrontiers) {
+				if (frontier.isSpilled()) {
+					return true;
+				}
+			}
+		}
+		return segments != null;
+	}
+
+	/**
+	 * Adds a path to the frontier
+	 * @param path holds the pathLength nodes of the path from index 0
+	 * @throws IOException if the path cannot be spilled
+	 */
+	public void add(int[] path) throws IOException {
+		if (rangeFrontiers != null) {
+			throw new IllegalStateException("A stitched level takes no paths");
+		}
+		if (segments != null) {
+			writePath(path);
+		} else {
+			int start = (int) size * pathLength;
+			if (start + pathLength > nodes.length) {
+				if ((long) nodes.length * 2 * BYTES_PER_NODE > memoryBudget) {
+					spill();
+					writePath(path);
+					++size;
+					return;
+				}
+				int[] grownNodes = new int[nodes.length * 2];
+				System.arraycopy(nodes, 0, grownNodes, 0, start);
+				nodes = grownNodes;
+			}
+			System.arraycopy(path, 0, nodes, start, pathLength);
+		}
+		++size;
+	}
+
+	/**
+	 * Adds every path of another frontier of the same level, in order
+	 * @param other
+	 * @throws IOException
+	 */
+	public void addAll(PathFrontier other) throws IOException {
+		addAll(other, 0, other.size);
+	}
+
+	/**
+	 * Adds the paths [from, to) of another frontier of the same level, in order
+	 * @param other
+	 * @param from
+	 * @param to
+	 * @throws IOException
+	 */
+	public void addAll(PathFrontier other, long from, long to) throws IOException {
+		int[] path = new int[pathLength];
+		Reader reader = other.openReader(from, to);
+		try {
+			while (reader.next(path)) {
+				add(path);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Opens a reader over the paths [from, to) of the frontier. Paths must
+	 * not be added while a reader is open
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	public Reader openReader(long from, long to) {
+		return new Reader(from, to);
+	}
+
+	/**
+	 * Releases the paths and hands the segments back to the store
+	 */
+	public void close() {
+		if (ownedFrontiers != null) {
+			for (PathFrontier frontier : ownedFrontiers) {
+				frontier.close();
+			}
+			ownedFrontiers = null;
+			rangeFrontiers = null;
+		}
+		nodes = null;
+		if (segments != null) {
+			for (FrontierSegmentStore.Segment segment : segments) {
+				segmentStore.release(segment);
+			}
+			segments = null;
+			lastSegment = null;
+		}
+	}
+
+	/**
+	 * Moves the packed paths to the segments of the store
+	 * @throws IOException
+	 */
+	private void spill() throws IOException {
+		log.debug("Spilling a frontier of " + size + " paths");
+		segments = new ArrayList<FrontierSegmentStore.Segment>();
+		int[] path = new int[pathLength];
+		for (int i = 0; i < size; i++) {
+			System.arraycopy(nodes, i * pathLength, path, 0, pathLength);
+			writePath(path);
+		}
+		nodes = null;
+	}
+
+	private void writePath(int[] path) throws IOException {
+		if (lastSegment == null || !lastSegment.hasRoomFor(pathLength)) {
+			lastSegment = segmentStore.acquire();
+			segments.add(lastSegment);
+		}
+		lastSegment.append(path, pathLength);
+	}
+
+	/**
+	 * @param path a path of a stitched level
+	 * @return the last range that starts at or before the path, which is
+	 * the range that holds it, since any empty ranges come before it
+	 */
+	private int findRange(long path) {
+		int low = 0;
+		int high = rangeFrontiers.length - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (rangeStarts[middle] <= path) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Reads a range of the paths of the frontier, one after the other. A
+	 * spilled range is read through a view of each of its segments in turn,
+	 * and a stitched range through a reader of each of its ranges in turn
+	 */
+	public class Reader {
+		private long next;
+		private long to;
+		private int segmentIndex;
+		private ByteBuffer segmentView = null;
+		private int rangeIndex;
+		private Reader rangeReader = null;
+
+		private Reader(long from, long to) {
+			this.next = from;
+			this.to = to;
+			if (rangeFrontiers != null && from < to) {
+				rangeIndex = findRange(from);
+				rangeReader = openRangeReader(from);
+			} else if (segments != null && from < to) {
+				segmentIndex = (int) (from / pathsPerSegment);
+				segmentView = segments.get(segmentIndex).openView();
+				segmentView.position((int) (from % pathsPerSegment) * (pathLength + 1) * BYTES_PER_NODE);
+			}
+		}
+
+		/**
+		 * Reads the next path
+		 * @param path receives the pathLength nodes of the path
+		 * @return false once the range is exhausted
+		 */
+		public boolean next(int[] path) {
+			if (next >= to) {
+				return false;
+			}
+			if (rangeReader != null) {
+				while (!rangeReader.next(path)) {
+					rangeReader = openRangeReader(rangeStarts[++rangeIndex]);
+				}
+			} else if (segmentView != null) {
+				if (!segmentView.hasRemaining()) {
+					segmentView = segments.get(++segmentIndex).openView();
+				}
+				int length = segmentView.getInt();
+				for (int i = 0; i < length; i++) {
+					path[i] = segmentView.getInt();
+				}
+			} else {
+				System.arraycopy(nodes, (int) next * pathLength, path, 0, pathLength);
+			}
+			++next;
+			return true;
+		}
+
+		/**
+		 * Opens a reader over the rest of the current range, from the given
+		 * path of the level on
+		 */
+		private Reader openRangeReader(long start) {
+			long rangeFrom = rangeFroms[rangeIndex] + start - rangeStarts[rangeIndex];
+			long rangeTo = rangeFroms[rangeIndex] + rangeStarts[rangeIndex + 1] - rangeStarts[rangeIndex];
+			return rangeFrontiers[rangeIndex].openReader(rangeFrom, rangeTo);
+		}
+
+		public void close() {
+			segmentView = null;
+			rangeReader = null;
+		}
+	}
+}
@@ -6,23 +6,30 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.PrintWriter;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
 import au.com.bytecode.opencsv.CSVReader;
-import edu.osumc.bmi.aa.dataPipeline.AuthorKeywordDataProcessor;
 import edu.osumc.bmi.aa.util.AcaAnaLogger;
 
 public class PathGenerator implements Serializable {
@@ -39,26 +46,75 @@ public class PathGenerator implements Serializable {
 	public static final String SEPARATOR = "->";
 	public static final String BLANK = "(blank)";
 	public static final String OUTPUT_FILE="output/collabs.txt";
+	public static final String OUTPUT_TRIE_DIR="output/trie/";
+	public static final String TRIE_FILE_EXTN = ".trie";
 	
 	public static final String INPUT_K2A_FILE = "data/KeywordsToAuthors.csv";
 	public static final String INPUT_A2K_FILE = "data/AuthorsToKeywords.csv";
 	
-	public static final String SERIAL_PATHEXT_DIR="temp/extensions/";
-	public static final String SERIAL_PATH_DIR="temp/paths/";
+	public static final String FRONTIER_DIR="temp/frontier/";
 	
-	public static final String PATH_STR="path";
-	public static final String PATH_EXTN_STR="pathExtn";
+	private static final String OSU_AUTHOR_PATTERN = "^GRT[0-9]+";
+	private static final String PART_FILE_EXTN = ".part";
 	
-	public static final String FILE_PATH_SEPARATOR = "/";
+	private static final byte[] OPENING_BRACKET_BYTES = "[".getBytes();
+	private static final byte[] CLOSING_BRACKET_BYTES = "]".getBytes();
+	private static final byte[] ROOT_SEPARATOR_BYTES = " ====>".getBytes();
+	private static final byte[] SEPARATOR_BYTES = SEPARATOR.getBytes();
+	private static final byte[] LINE_SEPARATOR_BYTES = System.getProperty("line.separator").getBytes();
 	
-	private static final String SERIAL_FILE_EXTN = ".ser";
-	private static final String OSU_AUTHOR_PATTERN = "^GRT[0-9]+";
+	private static final int PATH_WRITER_SLOTS = 8192;
+	private static final int PATH_WRITER_BUFFER_BYTES = 256 * 1024;
+	
+	/**
+	 * The paths of a level that one task extends when a level is extended in parallel
+	 */
+	private static final int CHUNK_SIZE = 4096;
+	
+	/**
+	 * The root authors per thread that may run or wait for their part file
+	 * to be appended at the same time
+	 */
+	private static final int TASKS_IN_FLIGHT_PER_THREAD = 2;
+	private static final long DEFAULT_FRONTIER_MEMORY_BUDGET = 256L * 1024 * 1024;
+	private static final int DEFAULT_FRONTIER_SEGMENT_SIZE = 64 * 1024 * 1024;
 	
-	private static final String PATHFILE_NAME_PATTERN = "^path((Extn)?)[0-9]+.ser$";
+	private AuthorKeywordGraph graph;
+	private boolean[] nodeIsBlank;
+	private boolean[] authorIsRoot;
+	private byte[][] nameBytes;
 	
-	private AuthorKeywordDataProcessor akdp;
-	private Map<String, List<String>> a2kMap, k2aMap;
-	private Set<String> setOfAuthorsFinishedWith;
+	/**
+	 * The number of fork/join worker threads that generate the paths of
+	 * several root authors, and extend the paths of a level, at the same
+	 * time. The default of 1 generates them one after the other on the
+	 * calling thread
+	 */
+	private int threadCount = 1;
+	
+	/**
+	 * The bytes the paths of the search may take up in memory before they
+	 * are spilled to FRONTIER_DIR. It is shared by the root authors run at
+	 * the same time, by the two levels each of them holds, the one being
+	 * extended and the next, and by the workers that extend a level
+	 */
+	private long frontierMemoryBudget = DEFAULT_FRONTIER_MEMORY_BUDGET;
+	
+	/**
+	 * The bytes in every memory mapped segment file of FRONTIER_DIR
+	 */
+	private int frontierSegmentSize = DEFAULT_FRONTIER_SEGMENT_SIZE;
+	
+	/**
+	 * Write the paths of every root author to a trie file of its own under
+	 * OUTPUT_TRIE_DIR, where the paths share their prefixes, instead of
+	 * writing every path to OUTPUT_FILE as a line of text
+	 */
+	private boolean writeTriePaths = false;
+	
+	private ForkJoinPool pool = null;
+	private FrontierSegmentStore segmentStore = null;
+	private AsyncPathWriter pathWriter = null;
 	
 	static{
 		log.setLevel(Level.INFO);
@@ -68,9 +124,17 @@ public class PathGenerator implements Serializable {
 		String[][] a2kArray = readCSVFileIntoMatrix(INPUT_A2K_FILE);
 		String[][] k2aArray = readCSVFileIntoMatrix(INPUT_K2A_FILE);
 		
-		a2kMap = sortValuesInMap(transformArrayToHashMap(a2kArray));
-		k2aMap = sortValuesInMap(transformArrayToHashMap(k2aArray));
-		setOfAuthorsFinishedWith = new HashSet<String>();
+		graph = new AuthorKeywordGraph(sortValuesInMap(transformArrayToHashMap(a2kArray)),
+				sortValuesInMap(transformArrayToHashMap(k2aArray)));
+		nodeIsBlank = new boolean[graph.getNodeCount()];
+		for(int node = 0; node < graph.getNodeCount(); node++){
+			nodeIsBlank[node] = graph.getName(node).equals(BLANK);
+		}
+		authorIsRoot = new boolean[graph.getAuthorCount()];
+		for(int author = 0; author < graph.getAuthorCount(); author++){
+			//Every path needs to start with an OSU researcher
+			authorIsRoot[author] = !nodeIsBlank[author] && graph.getName(author).matches(OSU_AUTHOR_PATTERN);
+		}
 	}
 	
 	/** Reads in a given CSV file into a 2D Array
@@ -137,266 +201,583 @@ public class PathGenerator implements Serializable {
 			Map<String, Set<String>> keyword2AuthorsMap) {
 		Map<String, List<String>> newMap = new HashMap<String, List<String>>();
 		for(Entry<String, Set<String>> entry : keyword2AuthorsMap.entrySet()){
-			newMap.put(entry.getKey(), akdp.sortStringsInSet(entry.getValue()));
+			newMap.put(entry.getKey(), sortStringsInSet(entry.getValue()));
 		}
 		
 		return newMap;
 	}
 
 	/**
-	 * The main method of this class
+	 * A helper method to sort the words in a set
+	 * @return - a sorted list of keywords
 	 */
-	public void run(){           
+	private List<String> sortStringsInSet(Set<String> setOfStrings) {
+		String[] stringArray = new String[setOfStrings.size()];
+		stringArray = setOfStrings.toArray(stringArray);
+		List<String> stringList = Arrays.asList(stringArray);
+		Collections.sort(stringList);
 		
-		PrintWriter pw = null;
+		return stringList;
+	}
+
+	/**
+	 * The main method of this class
+	 */
+	public void run(){
+
+		FileOutputStream fos = null;
+		PathSink sink = null;
+		segmentStore = new FrontierSegmentStore(new File(FRONTIER_DIR), frontierSegmentSize);
+		pathWriter = new AsyncPathWriter(PATH_WRITER_SLOTS, PATH_WRITER_BUFFER_BYTES);
+		encodeNames();
 		try {
-			pw = new PrintWriter(new File(OUTPUT_FILE));
-			for(String author : a2kMap.keySet()){
-				//Every path needs to start with an OSU researcher
-				if(!author.equals(BLANK) && author.matches(OSU_AUTHOR_PATTERN)){
-					generatePathsForAuthor(author, pw);
-					setOfAuthorsFinishedWith.add(author);
+			if(writeTriePaths){
+				new File(OUTPUT_TRIE_DIR).mkdirs();
+			}
+			if(threadCount > 1){
+				if(!writeTriePaths){
+					fos = new FileOutputStream(new File(OUTPUT_FILE));
+				}
+				printPathsForEveryAuthorInParallel(fos);
+			} else {
+				if(!writeTriePaths){
+					sink = pathWriter.open(new File(OUTPUT_FILE));
+				}
+				for(int author = 0; author < graph.getAuthorCount(); author++){
+					if(authorIsRoot[author] && writeTriePaths){
+						writeTrieForAuthor(author);
+					} else if(authorIsRoot[author]){
+						generatePathsForAuthor(author, printingTo(sink));
+					}
 				}
 			}
 		} catch (FileNotFoundException e) {
 			log.error("UNABLE TO OPEN OUTPUT FILE");
 			e.printStackTrace();
+		} catch (IOException e) {
+			log.error("IOException: Problems spilling the frontier to " + FRONTIER_DIR);
+			e.printStackTrace();
 		} finally {
-			if(pw != null){
-				pw.flush();
-				pw.close();
+			if(sink != null){
+				sink.close();
+			}
+			if(fos != null){
+				try {
+					fos.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
 			}
-			clearDirectory(SERIAL_PATH_DIR);
+			pathWriter.shutdown();
+			pathWriter = null;
+			if(segmentStore.getSegmentCount() > 0){
+				log.info("Spilled frontiers to " + segmentStore.getSegmentCount() + " segments");
+			}
+			segmentStore.close();
+			segmentStore = null;
 		}
 	}
-	
+
 	/**
-	 * This method generates all the paths for the given author
-	 * The generated paths are written to an output file
-	 * @param author
-	 * @param pw
+	 * The parallel version of the loop over the root authors in run. Each
+	 * root author is a fork/join task that writes its paths to a part file,
+	 * and the part files are appended to the output in the order of the
+	 * serial loop. A root author never extends a path to a root author that
+	 * comes before it, as if those were already finished with, so the paths
+	 * do not depend on which authors run at the same time. Trie files are
+	 * written per author and need no part files.
+	 * At most getMaxTasksInFlight() root authors are submitted ahead of the
+	 * one being appended, so that the frontier memory budget, which is split
+	 * between them, holds, and a slow author holds back a bounded number of
+	 * finished part files rather than nearly the whole output
+	 * @param fos - the output, null when writing trie files
+	 * @throws IOException
 	 */
-	private void generatePathsForAuthor(String author, PrintWriter pw){
-		
-		List<String> path = new ArrayList<String>();
-		path.add(author);
-		serializePath(path, author, 0);
+	private void printPathsForEveryAuthorInParallel(FileOutputStream fos) throws IOException {
+		pool = new ForkJoinPool(threadCount);
+		log.info("Generating paths on " + threadCount + " threads");
+		ArrayDeque<AuthorPathsTask> tasks = new ArrayDeque<AuthorPathsTask>();
+		int maxTasksInFlight = getMaxTasksInFlight();
+		try {
+			FileChannel outputChannel = fos != null ? fos.getChannel() : null;
+			for(int author = 0; author < graph.getAuthorCount(); author++){
+				if(authorIsRoot[author]){
+					if(tasks.size() == maxTasksInFlight){
+						finishAuthorTask(tasks.poll(), outputChannel);
+					}
+					AuthorPathsTask task = new AuthorPathsTask(author);
+					pool.execute(task);
+					tasks.add(task);
+				}
+			}
+			while(!tasks.isEmpty()){
+				finishAuthorTask(tasks.poll(), outputChannel);
+			}
+		} finally {
+			pool.shutdown();
+			pool = null;
+		}
+	}
 
-		for (int i = 0; i < DEGREES_OF_SEPARATION; i++) {
-			extendPaths(author);
+	/**
+	 * Waits for the task of a root author and appends its part file to the output
+	 * @param task
+	 * @param outputChannel - null when writing trie files
+	 * @throws IOException
+	 */
+	private void finishAuthorTask(AuthorPathsTask task, FileChannel outputChannel) throws IOException {
+		File partFile = task.join();
+		if(partFile != null){
+			appendPartFile(partFile, outputChannel);
 		}
+	}
+
+	/**
+	 * Generates the paths of one root author into a part file of its own,
+	 * or into its trie file
+	 */
+	private class AuthorPathsTask extends RecursiveTask<File> {
+		private static final long serialVersionUID = 7108432966274014719L;
+		private int author;
 
-		File pathDir = new File(SERIAL_PATH_DIR + author);
-		for (File pathFile : pathDir.listFiles()) {
-			if(pathFile.getName().matches(PATHFILE_NAME_PATTERN)){ //this check to ignore .DS, .git files etc
-				List<String> completePath = deserializePath(pathFile);
-				pw.println(pathToString(completePath));
+		private AuthorPathsTask(int author) {
+			this.author = author;
+		}
+
+		@Override
+		protected File compute() {
+			if(writeTriePaths){
+				try {
+					writeTrieForAuthor(author);
+				} catch (IOException e) {
+					log.error("IOException: Problems writing the paths of " + graph.getName(author));
+					e.printStackTrace();
+				}
+				return null;
 			}
+			File partFile = new File(FRONTIER_DIR + graph.getName(author) + PART_FILE_EXTN);
+			PathSink sink = null;
+			try {
+				partFile.getParentFile().mkdirs();
+				sink = pathWriter.open(partFile);
+				generatePathsForAuthor(author, printingTo(sink));
+			} catch (IOException e) {
+				log.error("IOException: Problems writing the paths of " + graph.getName(author));
+				e.printStackTrace();
+			} finally {
+				if(sink != null){
+					sink.close();
+				}
+			}
+			return partFile;
 		}
 	}
 
 	/**
-	 * This method extends paths starting with the input author id
+	 * Appends a part file to the output and deletes it
+	 * @param partFile
+	 * @param outputChannel
+	 * @throws IOException
+	 */
+	private void appendPartFile(File partFile, FileChannel outputChannel) throws IOException {
+		FileInputStream fis = new FileInputStream(partFile);
+		try {
+			FileChannel partChannel = fis.getChannel();
+			long position = 0, size = partChannel.size();
+			while (position < size) {
+				position += partChannel.transferTo(position, size - position, outputChannel);
+			}
+		} finally {
+			fis.close();
+		}
+		partFile.delete();
+	}
+
+	/**
+	 * This method writes all the paths of the given author to its own trie
+	 * file, where the paths share their prefixes
 	 * @param author
+	 * @throws IOException
 	 */
-	private void extendPaths(String author) {
-		
-		File pathDir = new File(SERIAL_PATH_DIR + author);
-		File[] pathFiles = pathDir.listFiles();
-	
-		for(File pathFile : pathFiles){
-			if(pathFile.getName().matches(PATHFILE_NAME_PATTERN)){ //this check to ignore .DS, .git files etc
-				List<String> path = deserializePath(pathFile);
-				//Write extensions to extensions dir
-				getPathExtns(path);
-			
-				//read extensions out from extensions dir,
-				//append extensions to original path and serialize new paths to path dir
-				File extnDir = new File(SERIAL_PATHEXT_DIR);
-				int count = 0;
-				for(File extnFile : extnDir.listFiles()){
-					if(pathFile.getName().matches(PATHFILE_NAME_PATTERN)){ //this check to ignore .DS, .git files etc	
-			
-						List<String> pathExt = deserializePath(extnFile);
-						List<String> extendedPath = appendPathExtns(path, pathExt);
-						serializePath(extendedPath, author, count++);
-					}
+	private void writeTrieForAuthor(int author) throws IOException {
+		File trieFile = new File(OUTPUT_TRIE_DIR + graph.getName(author) + TRIE_FILE_EXTN);
+		final PathTrieEncoder encoder = new PathTrieEncoder(pathWriter.open(trieFile), nameBytes, false);
+		try {
+			generatePathsForAuthor(author, new ExtendedPathHandler() {
+				@Override
+				public void accept(int[] extendedPath) {
+					encoder.writePath(extendedPath, extendedPath.length, 0.0);
 				}
-				//clear out extensions directory
-				clearDirectory(SERIAL_PATHEXT_DIR);
-			}
+			});
+		} finally {
+			encoder.close();
 		}
 	}
 
 	/**
-	 * This method creates all valid path extensions for the given input path
-	 * Each created path extension is then serialized 
-	 * @param path
+	 * This method generates all the paths for the given author
+	 * The generated paths are written to an output file. The last level
+	 * is never held anywhere: every complete path is handed on as soon
+	 * as it is found
+	 * @param author
+	 * @param handler - takes the complete paths
+	 * @throws IOException
 	 */
-	private void getPathExtns(List<String> path) {
-		int pathSize = path.size();
-		int count = 0;
-		String authorToExtendFrom = path.get(pathSize - 1);
-		
-		List<String> keywordList = a2kMap.get(authorToExtendFrom);
-		for(String keyword : keywordList){
-			if(!keyword.equals(BLANK) && !path.contains(keyword)){
-				List<String> secondAuthorList = k2aMap.get(keyword);
-				for(String secondAuthor : secondAuthorList){
-					if(!secondAuthor.equals(BLANK) && !path.contains(secondAuthor) &&
-							!setOfAuthorsFinishedWith.contains(secondAuthor)){
-						List<String> pathExt = new ArrayList<String>();
-						pathExt.add(keyword);
-						pathExt.add(secondAuthor);
-						serializePath(pathExt, count++);
+	private void generatePathsForAuthor(int author, ExtendedPathHandler handler) throws IOException{
+
+		int[] path = new int[]{ author };
+		PathFrontier frontier = new PathFrontier(path.length, getLevelMemoryBudget(), segmentStore);
+		frontier.add(path);
+
+		for (int i = 0; i < DEGREES_OF_SEPARATION - 1; i++) {
+			frontier = extendPaths(frontier);
+		}
+		try {
+			long pathCount = getPathExtns(frontier, 0, frontier.size(), handler);
+			log.debug("Generated " + pathCount + " paths for " + graph.getName(author));
+		} finally {
+			frontier.close();
+		}
+	}
+
+	/**
+	 * @param sink
+	 * @return a handler that writes the complete paths straight to the
+	 * sink, through one line buffer
+	 */
+	private ExtendedPathHandler printingTo(final PathSink sink) {
+		final PathLineEncoder encoder = new PathLineEncoder();
+		return new ExtendedPathHandler() {
+			@Override
+			public void accept(int[] extendedPath) {
+				encoder.encode(extendedPath);
+				sink.write(encoder.lineBytes, encoder.lineLength);
+			}
+		};
+	}
+
+	/**
+	 * @return how many root authors may be in flight at once: one when they
+	 * run one after the other, and TASKS_IN_FLIGHT_PER_THREAD per thread on a pool
+	 */
+	private int getMaxTasksInFlight() {
+		return threadCount > 1 ? TASKS_IN_FLIGHT_PER_THREAD * threadCount : 1;
+	}
+
+	/**
+	 * The memory budget is shared by the root authors that may be in flight
+	 * at the same time, and every one of them holds two levels at once. A
+	 * worker blocked in a join may pick up another submitted root, so the
+	 * budget is split by the roots submitted, not by the threads
+	 * @return
+	 */
+	private long getLevelMemoryBudget() {
+		return frontierMemoryBudget / (2L * getMaxTasksInFlight());
+	}
+
+	/**
+	 * The workers that extend a level share its budget, since their buffers
+	 * are what the next level is made of
+	 * @return
+	 */
+	private long getWorkerMemoryBudget() {
+		return getLevelMemoryBudget() / threadCount;
+	}
+
+	/**
+	 * This method extends every path of one level of the search by one more
+	 * keyword and author. On a pool, the level is cut into chunks of
+	 * consecutive paths that are extended in parallel. Every worker appends
+	 * the extensions of the chunks it runs to a buffer of its own, and once
+	 * the level is done the next level is stitched together out of the
+	 * ranges of the chunks in those buffers, in chunk order, so it comes out
+	 * the same no matter how many threads extend it and no path is copied
+	 * @param frontier - the paths of the level, closed once they are extended
+	 * @return the paths of the next level
+	 * @throws IOException
+	 */
+	private PathFrontier extendPaths(PathFrontier frontier) throws IOException {
+		try {
+			if(pool == null || frontier.size() <= CHUNK_SIZE){
+				PathFrontier extensions = new PathFrontier(frontier.getPathLength() + 2, getLevelMemoryBudget(), segmentStore);
+				try {
+					getPathExtns(frontier, 0, frontier.size(), addingTo(extensions));
+				} catch (IOException e) {
+					extensions.close();
+					throw e;
+				}
+				return extensions;
+			}
+			Map<Thread, PathFrontier> workerExtensions = new ConcurrentHashMap<Thread, PathFrontier>();
+			List<ExtensionTask> tasks = new ArrayList<ExtensionTask>();
+			for(long from = 0; from < frontier.size(); from += CHUNK_SIZE){
+				tasks.add(new ExtensionTask(frontier, from, Math.min(from + CHUNK_SIZE, frontier.size()),
+						workerExtensions));
+			}
+			boolean isStitched = false;
+			try {
+				try {
+					ForkJoinTask.invokeAll(tasks);
+				} catch (UncheckedIOException e) {
+					//the level is incomplete, so it fails like the sequential extension
+					throw e.getCause();
+				}
+				List<PathFrontier> chunkExtensions = new ArrayList<PathFrontier>();
+				long[] extensionsFroms = new long[tasks.size()];
+				long[] extensionsTos = new long[tasks.size()];
+				for(int i = 0; i < tasks.size(); i++){
+					chunkExtensions.add(tasks.get(i).extensions);
+					extensionsFroms[i] = tasks.get(i).extensionsFrom;
+					extensionsTos[i] = tasks.get(i).extensionsTo;
+				}
+				PathFrontier extensions = PathFrontier.stitch(chunkExtensions, extensionsFroms, extensionsTos,
+						new ArrayList<PathFrontier>(workerExtensions.values()));
+				isStitched = true;
+				return extensions;
+			} finally {
+				if(!isStitched){
+					for(PathFrontier workerBuffer : workerExtensions.values()){
+						workerBuffer.close();
 					}
 				}
 			}
+		} finally {
+			frontier.close();
 		}
 	}
 
 	/**
-	 * Method appends path extensions to path
-	 * @param path
-	 * @param pathExt
-	 * @return
+	 * Extends one chunk of the paths of a level into the buffer of the worker
+	 * that runs it, and remembers the range of the buffer it filled. An
+	 * IOException is thrown on as an UncheckedIOException, so that invokeAll
+	 * fails the whole level
 	 */
-	private List<String> appendPathExtns(List<String> path, List<String> pathExt) {
-		List<String> extPath = new ArrayList<String>();
-		extPath.addAll(path);
-		extPath.addAll(pathExt);
+	private class ExtensionTask extends RecursiveAction {
+		private static final long serialVersionUID = -2381746098133455202L;
+		private PathFrontier frontier;
+		private long from;
+		private long to;
+		private Map<Thread, PathFrontier> workerExtensions;
+		private PathFrontier extensions;
+		private long extensionsFrom;
+		private long extensionsTo;
+
+		private ExtensionTask(PathFrontier frontier, long from, long to, Map<Thread, PathFrontier> workerExtensions) {
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.workerExtensions = workerExtensions;
+		}
 
-		return extPath;
+		@Override
+		protected void compute() {
+			extensions = workerExtensions.get(Thread.currentThread());
+			if(extensions == null){
+				extensions = new PathFrontier(frontier.getPathLength() + 2, getWorkerMemoryBudget(), segmentStore);
+				workerExtensions.put(Thread.currentThread(), extensions);
+			}
+			extensionsFrom = extensions.size();
+			try {
+				getPathExtns(frontier, from, to, addingTo(extensions));
+			} catch (IOException e) {
+				log.error("IOException: Problems spilling the frontier to " + FRONTIER_DIR);
+				throw new UncheckedIOException(e);
+			}
+			extensionsTo = extensions.size();
+		}
 	}
-	
+
 	/**
-	 * Method to serialize a path object. This one is for path extensions
-	 * @param pathExt
-	 * @param i
+	 * Takes the extended paths as getPathExtns creates them. The array is
+	 * reused for the next extended path as soon as accept returns
 	 */
-	private void serializePath(List<String> pathExt, int i) {
-		String fileName = SERIAL_PATHEXT_DIR + PATH_EXTN_STR + i + SERIAL_FILE_EXTN;
-		createDirectory(SERIAL_PATHEXT_DIR);
-		serialize(pathExt, fileName);
+	private interface ExtendedPathHandler {
+		public void accept(int[] extendedPath) throws IOException;
 	}
 
 	/**
-	 * Method to serialize a path object. This is an overloaded version and deals with
-	 * a path generated for an author
-	 * @param path
-	 * @param author
-	 * @param i
+	 * @param extensions
+	 * @return a handler that adds the extended paths to the next level
 	 */
-	//Overloaded method
-	private void serializePath(List<String> path, String author, int i) {
-		String fileName = SERIAL_PATH_DIR + author + FILE_PATH_SEPARATOR + PATH_STR + i + SERIAL_FILE_EXTN;
-		createDirectory(SERIAL_PATH_DIR + author + FILE_PATH_SEPARATOR);
-		serialize(path, fileName);
+	private static ExtendedPathHandler addingTo(final PathFrontier extensions) {
+		return new ExtendedPathHandler() {
+			@Override
+			public void accept(int[] extendedPath) throws IOException {
+				extensions.add(extendedPath);
+			}
+		};
 	}
-	
+
 	/**
-	 * Method to retrieve serialized path object
-	 * @param pathFile - the location of the frozen serialized path object
-	 * @return
+	 * This method creates all valid path extensions for the paths [from, to)
+	 * of a level and hands the extended paths to the handler
+	 * @param frontier
+	 * @param from
+	 * @param to
+	 * @param handler
+	 * @return the number of extended paths
+	 * @throws IOException
 	 */
-	private List<String> deserializePath(File pathFile) {
-		List<String> path = null;
+	private long getPathExtns(PathFrontier frontier, long from, long to, ExtendedPathHandler handler) throws IOException {
+		long extensionCount = 0;
+		int pathSize = frontier.getPathLength();
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int[] extendedPath = new int[pathSize + 2];
 		
+		PathFrontier.Reader reader = frontier.openReader(from, to);
 		try {
-			FileInputStream fis = new FileInputStream(pathFile);
-			ObjectInputStream ois = new ObjectInputStream(fis);
-			path = (List<String>)ois.readObject();
-			ois.close();
-			fis.close();
-		} catch (FileNotFoundException fnfe) {
-			log.error("FileNotFoundException: Could Not Find Path File!");
-			fnfe.printStackTrace();
-		} catch (IOException ioe) {
-			log.error("IOException: Error reading from serialized path file");
-			ioe.printStackTrace();
-		} catch (ClassNotFoundException cnfe) {
-			log.error("ClassNotFoundException: Error reading from serialized path file!! CLASS NOT FOUND!!");
-			cnfe.printStackTrace();
+			while(reader.next(extendedPath)){
+				int authorToExtendFrom = extendedPath[pathSize - 1];
+				for(int kwIndex = offsets[authorToExtendFrom]; kwIndex < offsets[authorToExtendFrom + 1]; kwIndex++){
+					int keyword = neighbors[kwIndex];
+					if(!nodeIsBlank[keyword] && !contains(extendedPath, pathSize, keyword)){
+						for(int authorIndex = offsets[keyword]; authorIndex < offsets[keyword + 1]; authorIndex++){
+							int secondAuthor = neighbors[authorIndex];
+							if(!nodeIsBlank[secondAuthor] && !contains(extendedPath, pathSize, secondAuthor) &&
+									!isFinishedBefore(secondAuthor, extendedPath[0])){
+								extendedPath[pathSize] = keyword;
+								extendedPath[pathSize + 1] = secondAuthor;
+								handler.accept(extendedPath);
+								++extensionCount;
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			reader.close();
 		}
-		
-		return path;
+		return extensionCount;
 	}
-	
+
 	/**
-	 * The actual serialization and writing to a file through
-	 * ObjectOutputStream method happens here
-	 * @param path
-	 * @param fileName
+	 * Root authors are taken in order, and the paths of a root author never
+	 * lead to a root author that was taken before it
+	 * @param author
+	 * @param rootAuthor
+	 * @return true if the author is a root author that comes before the given one
 	 */
-	private void serialize(List<String> path, String fileName) {
-		try {
-			FileOutputStream fos = new FileOutputStream(fileName);
-			ObjectOutputStream oos = new ObjectOutputStream(fos);
-			oos.writeObject(path);
-			oos.close();
-			fos.close();
-		} catch (FileNotFoundException fnfe) {
-			log.error("FileNotFoundException: Serial file cannot be found!!");
-			fnfe.printStackTrace();
-		} catch (IOException ioe) {
-			log.error("IOException: Problems writing to serial file!");
-			ioe.printStackTrace();
-		}
+	private boolean isFinishedBefore(int author, int rootAuthor) {
+		return authorIsRoot[author] && author < rootAuthor;
 	}
-	
+
 	/**
-	 * Method to create a new directory if it does not exist
-	 * @param dirName
+	 * @param path
+	 * @param length
+	 * @param node
+	 * @return true if the node is among the first length nodes of the path
 	 */
-	private void createDirectory(String dirName) {
-		File dir = new File(dirName);
-		if(!dir.exists()){
-			dir.mkdir();
+	private static boolean contains(int[] path, int length, int node) {
+		for(int i = 0; i < length; i++){
+			if(path[i] == node){
+				return true;
+			}
 		}
+		return false;
 	}
-
+	
 	/**
-	 * Method to clear all files out of specified directory, recursively
-	 * @param dir
+	 * Generates the text representation of a path into a reusable line buffer.
+	 * Format is [AUTHOR] ====>[AUTHOR]->[KEYWORD1]->[AUTHOR2]->[KEYWORD2]->...
+	 * followed by a line separator, in the platform charset like the
+	 * PrintWriter the paths used to be printed with
 	 */
-	private void clearDirectory(String dir){
-		File pathDir = new File(dir);
-		for(File file : pathDir.listFiles()){
-			if(file.isFile()){
-				file.delete();
-			} else {
-				if(file.isDirectory()){
-					String dirName = file.getName();
-					clearDirectory(dirName);
+	private class PathLineEncoder {
+		private byte[] lineBytes = new byte[256];
+		private int lineLength = 0;
+
+		private void encode(int[] path) {
+			lineLength = 0;
+			appendName(path[0]);
+			append(ROOT_SEPARATOR_BYTES);
+			for(int i = 0; i < path.length; i++){
+				if(i > 0){
+					append(SEPARATOR_BYTES);
 				}
+				appendName(path[i]);
 			}
+			append(LINE_SEPARATOR_BYTES);
+		}
+
+		private void appendName(int node) {
+			append(OPENING_BRACKET_BYTES);
+			append(nameBytes[node]);
+			append(CLOSING_BRACKET_BYTES);
+		}
+
+		private void append(byte[] bytes) {
+			if(lineLength + bytes.length > lineBytes.length){
+				lineBytes = Arrays.copyOf(lineBytes, 2 * (lineLength + bytes.length));
+			}
+			System.arraycopy(bytes, 0, lineBytes, lineLength, bytes.length);
+			lineLength += bytes.length;
 		}
 	}
 	
+	
 	/**
-	 * Method to generate a text representation of a generated path
-	 * Format is {{AUTHOR}} ====> [AUTHOR]->[KEYWORD1]->[AUTHOR2]->[KEYWORD2]->...
-	 * @param wordList
-	 * @return
+	 * This method encodes the name of every node once, in UTF-8 for the
+	 * trie files and in the default charset for the lines of OUTPUT_FILE
 	 */
-	private String pathToString(List<String> wordList){
-		int lastIndexOfSeparator = 0;
-		String line ="[" + wordList.get(0) + "] ====>";
-		for(String word : wordList){
-			line += "[" + word + "]" + SEPARATOR;
+	private void encodeNames() {
+		Charset charset = writeTriePaths ? Charset.forName("UTF-8") : Charset.defaultCharset();
+		nameBytes = new byte[graph.getNodeCount()][];
+		for(int node = 0; node < graph.getNodeCount(); node++){
+			nameBytes[node] = graph.getName(node).getBytes(charset);
 		}
-		lastIndexOfSeparator = line.lastIndexOf(SEPARATOR);
-		line = line.substring(0, lastIndexOfSeparator);
-		return line;
 	}
 	
 	
+	/** SETTER **/
+	public void setThreadCount(int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+
+	public void setFrontierMemoryBudget(long frontierMemoryBudget) {
+		this.frontierMemoryBudget = frontierMemoryBudget;
+	}
+
+	public void setFrontierSegmentSize(int frontierSegmentSize) {
+		this.frontierSegmentSize = frontierSegmentSize;
+	}
+
+	public void setWriteTriePaths(boolean writeTriePaths) {
+		this.writeTriePaths = writeTriePaths;
+	}
+
+	/**
+	 * Parses the name=value options given on the command line, for example
+	 * "threads=8", "frontierBudgetMB=1024", "segmentSizeMB=64" or
+	 * "format=trie" to write the paths as trie files
+	 * @param args
+	 */
+	private void parseOptions(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String[] option = args[i].split("=", 2);
+			String name = option[0];
+			String value = option.length > 1 ? option[1] : "";
+			if (name.equals("threads")) {
+				setThreadCount(value.equals("all") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value));
+			} else if (name.equals("frontierBudgetMB")) {
+				setFrontierMemoryBudget(Long.parseLong(value) * 1024 * 1024);
+			} else if (name.equals("segmentSizeMB")) {
+				setFrontierSegmentSize(Integer.parseInt(value) * 1024 * 1024);
+			} else if (name.equals("format")) {
+				setWriteTriePaths(value.equals("trie"));
+			} else {
+				log.warn("Ignoring unknown option: " + args[i]);
+			}
+		}
+	}
+	
 	public static void main(String[] args) {
 		AcaAnaLogger.initLogger();
 		
 		long startTime = System.currentTimeMillis();
 		
 		PathGenerator generator = new PathGenerator();
+		generator.parseOptions(args);
 		generator.run();
 
 		long endTime = System.currentTimeMillis();
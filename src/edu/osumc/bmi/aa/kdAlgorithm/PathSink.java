@@ -0,0 +1,22 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+/**
+ * Somewhere the encoded paths of one output file go. A sink is used by one
+ * search at a time, and the bytes handed to it may be reused as soon as
+ * write returns
+ */
+public interface PathSink {
+
+	/**
+	 * Writes the first length bytes of the array
+	 * @param bytes
+	 * @param length
+	 */
+	public void write(byte[] bytes, int length);
+
+	/**
+	 * Writes out everything handed to the sink and closes its file.
+	 * Returns once the file is complete
+	 */
+	public void close();
+}
@@ -0,0 +1,93 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.apache.log4j.Logger;
+
+import edu.osumc.bmi.aa.util.AcaAnaLogger;
+
+/**
+ * Expands trie paths files back to the flat formats they were written
+ * instead of. Paths with metrics, from PathFinder, become the CSV lines
+ * metric,author,keyword,author,... with the metric at float precision.
+ * Paths without, from PathGenerator, become the lines
+ * [AUTHOR] ====>[AUTHOR]->[KEYWORD1]->[AUTHOR2]->...
+ * Usage: PathTrieConverter <file or directory>...
+ * Every .trie file given, or found in a directory given, is expanded to a
+ * .csv or a .txt file next to it
+ */
+public class PathTrieConverter {
+
+	public static Logger log = Logger.getLogger(PathTrieConverter.class);
+
+	private static final String COMMA = ",";
+	private static final String TRIE_FILE_EXTN = ".trie";
+	private static final String CSV_FILE_EXTN = ".csv";
+	private static final String TXT_FILE_EXTN = ".txt";
+
+	/**
+	 * Expands one trie paths file
+	 * @param trieFile
+	 * @return the flat file written next to it
+	 * @throws IOException
+	 */
+	public static File expand(File trieFile) throws IOException {
+		PathTrieReader reader = new PathTrieReader(trieFile);
+		String name = trieFile.getPath();
+		File flatFile = new File(name.substring(0, name.length() - TRIE_FILE_EXTN.length()) +
+				(reader.hasMetrics() ? CSV_FILE_EXTN : TXT_FILE_EXTN));
+		PrintWriter pw = null;
+		try {
+			pw = new PrintWriter(flatFile);
+			StringBuilder line = new StringBuilder();
+			PathTrieReader.Cursor cursor = reader.cursor();
+			while (cursor.next()) {
+				line.setLength(0);
+				if (reader.hasMetrics()) {
+					line.append(cursor.getMetric());
+					for (int i = 0; i < cursor.getLength(); i++) {
+						line.append(COMMA).append(reader.getName(cursor.getNode(i)));
+					}
+				} else {
+					line.append('[').append(reader.getName(cursor.getNode(0))).append("] ====>");
+					for (int i = 0; i < cursor.getLength(); i++) {
+						if (i > 0) {
+							line.append(PathGenerator.SEPARATOR);
+						}
+						line.append('[').append(reader.getName(cursor.getNode(i))).append(']');
+					}
+				}
+				pw.println(line);
+			}
+		} finally {
+			if (pw != null) {
+				pw.flush();
+				pw.close();
+			}
+			reader.close();
+		}
+		return flatFile;
+	}
+
+	public static void main(String[] args) {
+		AcaAnaLogger.initLogger();
+		for (String arg : args) {
+			File file = new File(arg);
+			File[] files = file.isDirectory() ? file.listFiles() : new File[] { file };
+			for (File trieFile : files) {
+				if (!trieFile.getName().endsWith(TRIE_FILE_EXTN)) {
+					continue;
+				}
+				try {
+					File flatFile = expand(trieFile);
+					log.info("Expanded " + trieFile + " to " + flatFile);
+				} catch (IOException e) {
+					log.error("IOException: Problems expanding " + trieFile);
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the paths of one paths file as a trie in the compact format read
+ * by PathTrieReader, and hands the bytes to a PathSink as the paths come in.
+ *
+ * The layout of a file is:
+ * 1. a header: the magic number, the format version and a flags byte that
+ * tells whether the paths carry metrics,
+ * 2. one record per trie node, in node order: the distance back to its
+ * parent as a varint, 0 for a root, then its local ID shifted left by one
+ * with the terminal flag in the low bit, as a varint, then the metric as a
+ * float if the node is terminal and the paths carry metrics,
+ * 3. the dictionary: the number of names as a varint, then every name as a
+ * varint byte count followed by its UTF-8 bytes, in local ID order,
+ * 4. a fixed size trailer: the offset of the dictionary, the number of
+ * nodes, the number of paths, the number of names and the magic number again.
+ *
+ * A path shares its prefix with the path written just before it, which is
+ * all the sharing there is to find when the paths come in depth first
+ * order, as they do from PathFinder and PathGenerator. Only the nodes of
+ * the previous path are kept, so the nodes of a path are written as soon as
+ * it comes in, and the parent of a node is nearly always the node just
+ * before it, so the distance takes a single byte. The terminal node of a
+ * path is always a new node, so expanding the terminal nodes in node order
+ * gives back the paths in the order they were written. A node shared by
+ * many paths is written once, where the CSV and the binary formats write it
+ * again for every path.
+ *
+ * Local IDs are handed out by a LocalIdMap in the order nodes first show up
+ * in the file, as in BinaryPathEncoder, so the dictionary is only complete
+ * once the last path is written, which is why it trails the records.
+ * A file without paths is left empty, like an empty CSV file.
+ */
+public class PathTrieEncoder implements PathEncoder {
+
+	public static final int MAGIC = 0x41415054; // "AAPT"
+	public static final short VERSION = 2;
+	public static final int HEADER_BYTES = 7;
+	public static final int TRAILER_BYTES = 24;
+	public static final byte FLAG_METRICS = 1;
+
+	private static final int FLUSH_BYTES = 4096;
+
+	private PathSink sink;
+	private byte[][] nameBytes;
+	private boolean writeMetrics;
+
+	private LocalIdMap localIds = new LocalIdMap();
+
+	/**
+	 * The labels of the previous path and the trie nodes they were written as
+	 */
+	private int[] previousPath = new int[16];
+	private int[] previousNodes = new int[16];
+	private int previousLength = 0;
+	private int nodeCount = 0;
+	private int pathCount = 0;
+	private long bytesWritten = 0;
+
+	private byte[] buffer = new byte[2 * FLUSH_BYTES];
+	private int length = 0;
+
+	/**
+	 * @param sink - where the encoded file goes
+	 * @param nameBytes - the UTF-8 name of every node in the graph, by node ID
+	 * @param writeMetrics - false to leave the metrics of the paths out
+	 */
+	public PathTrieEncoder(PathSink sink, byte[][] nameBytes, boolean writeMetrics) {
+		this.sink = sink;
+		this.nameBytes = nameBytes;
+		this.writeMetrics = writeMetrics;
+	}
+
+	/**
+	 * Writes the nodes of a path that it does not share with the path
+	 * before it
+	 * @param path - node IDs
+	 * @param pathLength
+	 * @param metric
+	 */
+	@Override
+	public void writePath(int[] path, int pathLength, double metric) {
+		if (pathCount == 0) {
+			putInt(MAGIC);
+			putShort(VERSION);
+			put(writeMetrics ? FLAG_METRICS : 0);
+		}
+		if (pathLength > previousPath.length) {
+			previousPath = Arrays.copyOf(previousPath, 2 * pathLength);
+			previousNodes = Arrays.copyOf(previousNodes, 2 * pathLength);
+		}
+		int shared = 0;
+		int sharable = Math.min(pathLength - 1, previousLength);
+		while (shared < sharable && previousPath[shared] == path[shared]) {
+			++shared;
+		}
+		for (int i = shared; i < pathLength; i++) {
+			int node = nodeCount++;
+			boolean terminal = i == pathLength - 1;
+			putVarint(i == 0 ? 0 : node - previousNodes[i - 1]);
+			putVarint((localIds.intern(path[i]) << 1) | (terminal ? 1 : 0));
+			if (terminal && writeMetrics) {
+				putInt(Float.floatToIntBits((float) metric));
+			}
+			previousPath[i] = path[i];
+			previousNodes[i] = node;
+		}
+		previousLength = pathLength;
+		++pathCount;
+		if (length >= FLUSH_BYTES) {
+			flushBuffer();
+		}
+	}
+
+	/**
+	 * Writes the dictionary and the trailer, and closes the sink
+	 */
+	@Override
+	public void close() {
+		if (pathCount > 0) {
+			flushBuffer();
+			long dictionaryOffset = bytesWritten;
+			putVarint(localIds.size());
+			for (int i = 0; i < localIds.size(); i++) {
+				byte[] name = nameBytes[localIds.getNode(i)];
+				putVarint(name.length);
+				ensureCapacity(name.length);
+				System.arraycopy(name, 0, buffer, length, name.length);
+				length += name.length;
+				if (length >= FLUSH_BYTES) {
+					flushBuffer();
+				}
+			}
+			putLong(dictionaryOffset);
+			putInt(nodeCount);
+			putInt(pathCount);
+			putInt(localIds.size());
+			putInt(MAGIC);
+			flushBuffer();
+		}
+		sink.close();
+	}
+
+	private void flushBuffer() {
+		if (length > 0) {
+			sink.write(buffer, length);
+			bytesWritten += length;
+			length = 0;
+		}
+	}
+
+	private void ensureCapacity(int extraBytes) {
+		if (length + extraBytes > buffer.length) {
+			buffer = Arrays.copyOf(buffer, 2 * (length + extraBytes));
+		}
+	}
+
+	private void put(byte value) {
+		ensureCapacity(1);
+		buffer[length++] = value;
+	}
+
+	private void putVarint(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7f) != 0) {
+			buffer[length++] = (byte) ((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		buffer[length++] = (byte) value;
+	}
+
+	private void putShort(short value) {
+		ensureCapacity(2);
+		buffer[length++] = (byte) (value >>> 8);
+		buffer[length++] = (byte) value;
+	}
+
+	private void putInt(int value) {
+		ensureCapacity(4);
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			buffer[length++] = (byte) (value >>> shift);
+		}
+	}
+
+	private void putLong(long value) {
+		ensureCapacity(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			buffer[length++] = (byte) (value >>> shift);
+		}
+	}
+}
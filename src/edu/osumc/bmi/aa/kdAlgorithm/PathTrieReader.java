@@ -0,0 +1,167 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a paths file written in the trie format of PathTrieEncoder.
+ *
+ * The file is memory-mapped through a MappedPathFile, in windows, so files
+ * larger than 2 GB can be read too, and the node records are walked in
+ * order by a Cursor that only keeps the nodes of the current path, so
+ * reading a file takes no more memory than its longest path, whatever its
+ * size. Names are only decoded when asked for.
+ * Usage:
+ * 	PathTrieReader reader = new PathTrieReader(file);
+ * 	PathTrieReader.Cursor cursor = reader.cursor();
+ * 	while (cursor.next()) { ... reader.getName(cursor.getNode(i)), cursor.getMetric() ... }
+ * 	reader.close();
+ */
+public class PathTrieReader implements Closeable {
+
+	private MappedPathFile file;
+	private boolean hasMetrics = false;
+	private int nodeCount = 0;
+	private int pathCount = 0;
+	private long recordsEnd = 0;
+
+	public PathTrieReader(File trieFile) throws IOException {
+		file = new MappedPathFile(trieFile);
+		if (file.size() == 0) {
+			return; // a file without paths is empty
+		}
+		if (file.size() < PathTrieEncoder.HEADER_BYTES + PathTrieEncoder.TRAILER_BYTES
+				|| file.getInt(0) != PathTrieEncoder.MAGIC
+				|| file.getInt(file.size() - 4) != PathTrieEncoder.MAGIC) {
+			file.close();
+			throw new IOException("Not a trie paths file: " + trieFile);
+		}
+		if (file.getShort(4) != PathTrieEncoder.VERSION) {
+			file.close();
+			throw new IOException("Unsupported trie paths version " + file.getShort(4) + " in " + trieFile);
+		}
+		hasMetrics = (file.get(6) & PathTrieEncoder.FLAG_METRICS) != 0;
+		long trailer = file.size() - PathTrieEncoder.TRAILER_BYTES;
+		recordsEnd = file.getLong(trailer);
+		nodeCount = file.getInt(trailer + 8);
+		pathCount = file.getInt(trailer + 12);
+		file.indexDictionary(recordsEnd, file.getInt(trailer + 16));
+	}
+
+	/** GETTER **/
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/** GETTER **/
+	public int getPathCount() {
+		return pathCount;
+	}
+
+	/** GETTER **/
+	public int getNameCount() {
+		return file.getNameCount();
+	}
+
+	/**
+	 * @return true if the paths carry metrics, as the paths of PathFinder do
+	 */
+	public boolean hasMetrics() {
+		return hasMetrics;
+	}
+
+	/**
+	 * Decodes the name of a local ID
+	 * @param localId
+	 * @return
+	 */
+	public String getName(int localId) {
+		return file.getName(localId);
+	}
+
+	/**
+	 * @return a cursor over every path in the file, in the order they were written
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Walks the node records of the file in order, keeping the nodes of the
+	 * current path on a stack, and stops at every terminal node. The parent
+	 * of a node is always on the stack, as the encoder only shares a prefix
+	 * with the path before. The local IDs of the current path are only
+	 * valid until the next call to next()
+	 */
+	public class Cursor {
+		private MappedPathFile.Input records;
+		private int node = -1;
+		private int[] nodes = new int[16];
+		private int[] path = new int[16];
+		private int length = 0;
+		private float metric = 0.0f;
+
+		private Cursor() {
+			records = file.input(pathCount > 0 ? PathTrieEncoder.HEADER_BYTES : 0, recordsEnd);
+		}
+
+		/**
+		 * Moves on to the next path
+		 * @return false once there are no more paths
+		 */
+		public boolean next() {
+			while (records.hasRemaining()) {
+				++node;
+				int distance = records.getVarint();
+				int labelAndFlag = records.getVarint();
+				int depth = 0;
+				if (distance != 0) {
+					int parent = node - distance;
+					depth = length;
+					while (depth > 0 && nodes[depth - 1] != parent) {
+						--depth;
+					}
+					if (depth == 0) {
+						throw new IllegalStateException("Corrupt trie paths file: node " + node +
+								" has no parent on the current path");
+					}
+				}
+				if (depth == nodes.length) {
+					nodes = Arrays.copyOf(nodes, 2 * depth);
+					path = Arrays.copyOf(path, 2 * depth);
+				}
+				nodes[depth] = node;
+				path[depth] = labelAndFlag >>> 1;
+				length = depth + 1;
+				if ((labelAndFlag & 1) != 0) {
+					metric = hasMetrics ? records.getFloat() : 0.0f;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * @param index
+		 * @return the local ID of the node at the given position of the path
+		 */
+		public int getNode(int index) {
+			return path[index];
+		}
+
+		public float getMetric() {
+			return metric;
+		}
+	}
+}
@@ -0,0 +1,292 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Ranks the authors a root author should talk to by a random walk with
+ * restart (personalized PageRank) over the author-keyword graph, instead of
+ * enumerating every path.
+ *
+ * The walk starts at the root author. At every step it goes back to the
+ * root with the restart probability, and otherwise moves on: from an author
+ * to one of its usable keywords, picked in proportion to the weight of the
+ * keyword times a divergence bias, and from a keyword to one of its
+ * extensible authors, picked uniformly. The bias grows with the semantic
+ * distance between the heading of the keyword and the closest heading of
+ * the root's own keywords, so walks lean towards fields the root does not
+ * already work in. A node with nowhere to go sends the walk back to the root.
+ * The score of a node is the fraction of the time the walk spends there.
+ *
+ * POWER iterates the score vector over primitive arrays until it settles.
+ * MONTE_CARLO counts the visits of simulated walks, which is cheaper when
+ * only the top of the ranking matters and converges on the same scores.
+ */
+public class RandomWalkRanker {
+
+	public enum Method {
+		POWER, MONTE_CARLO
+	}
+
+	private static final double RESTART_PROBABILITY = 0.15;
+	private static final double DIVERGENCE_BIAS = 1.0;
+	private static final double CONVERGENCE_TOLERANCE = 1e-9;
+	private static final int MAX_ITERATIONS = 200;
+	private static final int WALK_COUNT = 100000;
+
+	private AuthorKeywordGraph graph;
+	private boolean[] authorIsExtensible;
+	private boolean[] keywordIsUsable;
+	private double[] keywordWeights;
+	private int[] keywordHeadingIds;
+	private int[][] headingDistances;
+	private int maxDistance = 0;
+	private long seed;
+
+	/**
+	 * The extensible authors of every keyword, in CSR form
+	 */
+	private int[] extensibleOffsets;
+	private int[] extensibleAuthors;
+
+	/**
+	 * The transition weights of the edges from authors to keywords for the
+	 * current root, and their sum for every author
+	 */
+	private double[] edgeWeights;
+	private double[] outWeights;
+
+	/**
+	 * @param graph
+	 * @param authorIsExtensible
+	 * @param keywordIsUsable
+	 * @param keywordWeights
+	 * @param keywordHeadingIds
+	 * @param headingDistances
+	 * @param seed - seeds the walks of MONTE_CARLO
+	 */
+	public RandomWalkRanker(AuthorKeywordGraph graph, boolean[] authorIsExtensible,
+			boolean[] keywordIsUsable, double[] keywordWeights, int[] keywordHeadingIds,
+			int[][] headingDistances, long seed) {
+		this.graph = graph;
+		this.authorIsExtensible = authorIsExtensible;
+		this.keywordIsUsable = keywordIsUsable;
+		this.keywordWeights = keywordWeights;
+		this.keywordHeadingIds = keywordHeadingIds;
+		this.headingDistances = headingDistances;
+		this.seed = seed;
+		for (int[] row : headingDistances) {
+			for (int distance : row) {
+				maxDistance = Math.max(maxDistance, distance);
+			}
+		}
+		indexExtensibleAuthors();
+		edgeWeights = new double[graph.getEdgeCount()];
+		outWeights = new double[graph.getAuthorCount()];
+	}
+
+	private void indexExtensibleAuthors() {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int authorCount = graph.getAuthorCount();
+		extensibleOffsets = new int[graph.getKeywordCount() + 1];
+		extensibleAuthors = new int[offsets[graph.getNodeCount()] - offsets[authorCount]];
+		int count = 0;
+		for (int kw = authorCount; kw < graph.getNodeCount(); kw++) {
+			extensibleOffsets[kw - authorCount] = count;
+			for (int i = offsets[kw]; i < offsets[kw + 1]; i++) {
+				if (authorIsExtensible[neighbors[i]]) {
+					extensibleAuthors[count++] = neighbors[i];
+				}
+			}
+		}
+		extensibleOffsets[graph.getKeywordCount()] = count;
+	}
+
+	/**
+	 * Ranks the extensible authors by their score for a root author
+	 * @param root
+	 * @param method
+	 * @param count - the most authors to return
+	 * @return the author IDs with a score above 0, best first
+	 */
+	public int[] rankCollaborators(int root, Method method, int count) {
+		final double[] scores = method == Method.POWER ? computeScores(root) : estimateScores(root, WALK_COUNT);
+		Integer[] candidates = new Integer[graph.getAuthorCount()];
+		int candidateCount = 0;
+		for (int author = 0; author < graph.getAuthorCount(); author++) {
+			if (author != root && authorIsExtensible[author] && scores[author] > 0.0) {
+				candidates[candidateCount++] = author;
+			}
+		}
+		Arrays.sort(candidates, 0, candidateCount, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a1, Integer a2) {
+				int byScore = Double.compare(scores[a2], scores[a1]);
+				return byScore != 0 ? byScore : graph.getName(a1).compareTo(graph.getName(a2));
+			}
+		});
+		int[] ranked = new int[Math.min(count, candidateCount)];
+		for (int i = 0; i < ranked.length; i++) {
+			ranked[i] = candidates[i];
+		}
+		return ranked;
+	}
+
+	/**
+	 * Computes the scores of every node for a root by power iteration
+	 * @param root
+	 * @return the scores by node ID, summing to 1
+	 */
+	public double[] computeScores(int root) {
+		computeEdgeWeights(root);
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int authorCount = graph.getAuthorCount();
+		double[] scores = new double[graph.getNodeCount()];
+		double[] nextScores = new double[graph.getNodeCount()];
+		scores[root] = 1.0;
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			Arrays.fill(nextScores, 0.0);
+			double strandedScore = 0.0;
+			for (int author = 0; author < authorCount; author++) {
+				if (scores[author] == 0.0) {
+					continue;
+				}
+				if (outWeights[author] == 0.0) {
+					strandedScore += scores[author];
+					continue;
+				}
+				double share = (1.0 - RESTART_PROBABILITY) * scores[author] / outWeights[author];
+				for (int i = offsets[author]; i < offsets[author + 1]; i++) {
+					nextScores[neighbors[i]] += share * edgeWeights[i];
+				}
+			}
+			for (int kw = authorCount; kw < graph.getNodeCount(); kw++) {
+				if (scores[kw] == 0.0) {
+					continue;
+				}
+				int first = extensibleOffsets[kw - authorCount];
+				int last = extensibleOffsets[kw - authorCount + 1];
+				if (first == last) {
+					strandedScore += scores[kw];
+					continue;
+				}
+				double share = (1.0 - RESTART_PROBABILITY) * scores[kw] / (last - first);
+				for (int i = first; i < last; i++) {
+					nextScores[extensibleAuthors[i]] += share;
+				}
+			}
+			nextScores[root] += RESTART_PROBABILITY + (1.0 - RESTART_PROBABILITY) * strandedScore;
+
+			double change = 0.0;
+			for (int node = 0; node < scores.length; node++) {
+				change += Math.abs(nextScores[node] - scores[node]);
+			}
+			double[] swap = scores;
+			scores = nextScores;
+			nextScores = swap;
+			if (change < CONVERGENCE_TOLERANCE) {
+				break;
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Estimates the scores of every node for a root from the visits of
+	 * simulated walks. The walks of a root are seeded from the seed and the
+	 * root, so the estimate does not change from run to run
+	 * @param root
+	 * @param walkCount
+	 * @return the scores by node ID, summing to 1
+	 */
+	public double[] estimateScores(int root, int walkCount) {
+		computeEdgeWeights(root);
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int authorCount = graph.getAuthorCount();
+		Random random = new Random(seed ^ graph.getName(root).hashCode());
+		long[] visits = new long[graph.getNodeCount()];
+		long totalVisits = 0;
+		for (int walk = 0; walk < walkCount; walk++) {
+			int node = root;
+			while (true) {
+				++visits[node];
+				++totalVisits;
+				if (random.nextDouble() < RESTART_PROBABILITY) {
+					break;
+				}
+				if (node < authorCount) {
+					if (outWeights[node] == 0.0) {
+						break;
+					}
+					node = neighbors[pickEdge(offsets[node], offsets[node + 1], random.nextDouble() * outWeights[node])];
+				} else {
+					int first = extensibleOffsets[node - authorCount];
+					int last = extensibleOffsets[node - authorCount + 1];
+					if (first == last) {
+						break;
+					}
+					node = extensibleAuthors[first + random.nextInt(last - first)];
+				}
+			}
+		}
+		double[] scores = new double[graph.getNodeCount()];
+		for (int node = 0; node < scores.length; node++) {
+			scores[node] = (double) visits[node] / totalVisits;
+		}
+		return scores;
+	}
+
+	/**
+	 * Finds the edge whose share of the weight of an author covers the target
+	 */
+	private int pickEdge(int first, int last, double target) {
+		double cumulativeWeight = 0.0;
+		int lastWeighted = first;
+		for (int i = first; i < last; i++) {
+			if (edgeWeights[i] > 0.0) {
+				cumulativeWeight += edgeWeights[i];
+				lastWeighted = i;
+				if (target < cumulativeWeight) {
+					return i;
+				}
+			}
+		}
+		return lastWeighted;
+	}
+
+	/**
+	 * Weighs the edges from authors to keywords for a root: the weight of
+	 * the keyword times one plus the bias for its distance from the root's
+	 * own headings, or 0 for a keyword that is not usable
+	 */
+	private void computeEdgeWeights(int root) {
+		int[] offsets = graph.getOffsets();
+		int[] neighbors = graph.getNeighbors();
+		int[] rootDistances = new int[headingDistances.length];
+		Arrays.fill(rootDistances, Integer.MAX_VALUE);
+		for (int i = offsets[root]; i < offsets[root + 1]; i++) {
+			int rootHeading = keywordHeadingIds[neighbors[i]];
+			for (int heading = 0; heading < headingDistances.length; heading++) {
+				rootDistances[heading] = Math.min(rootDistances[heading], headingDistances[heading][rootHeading]);
+			}
+		}
+		for (int author = 0; author < graph.getAuthorCount(); author++) {
+			outWeights[author] = 0.0;
+			for (int i = offsets[author]; i < offsets[author + 1]; i++) {
+				int kw = neighbors[i];
+				edgeWeights[i] = 0.0;
+				if (keywordIsUsable[kw]) {
+					int distance = rootDistances[keywordHeadingIds[kw]];
+					double bias = (distance == Integer.MAX_VALUE || maxDistance == 0) ? 0.0 :
+						DIVERGENCE_BIAS * distance / maxDistance;
+					edgeWeights[i] = keywordWeights[kw] * (1.0 + bias);
+				}
+				outWeights[author] += edgeWeights[i];
+			}
+		}
+	}
+}
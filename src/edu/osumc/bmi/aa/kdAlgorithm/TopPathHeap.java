@@ -0,0 +1,173 @@
+package edu.osumc.bmi.aa.kdAlgorithm;
+
+/**
+ * A bounded min-heap that keeps the K highest scoring paths offered to it.
+ * The worst path kept sits at the root, so its metric is the floor that a
+ * new path has to beat, which the path search also uses to prune branches.
+ *
+ * Paths are copied into int arrays that are allocated once per slot and
+ * reused when a path is evicted. Paths with the same metric are ordered by
+ * their node IDs, so the paths kept do not depend on the order in which
+ * they were offered.
+ */
+public class TopPathHeap {
+
+	private int capacity;
+	private int size = 0;
+	private double[] metrics;
+	private int[][] paths;
+	private int[] pathLengths;
+
+	public TopPathHeap(int capacity) {
+		this.capacity = capacity;
+		metrics = new double[capacity];
+		paths = new int[capacity][];
+		pathLengths = new int[capacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/**
+	 * @return the metric of the worst path kept, which a new path has to
+	 * beat once the heap is full
+	 */
+	public double getFloor() {
+		return size == 0 ? Double.NEGATIVE_INFINITY : metrics[0];
+	}
+
+	/**
+	 * Offers a path to the heap. The path is copied if it is kept
+	 * @param metric
+	 * @param path
+	 * @param length
+	 * @return true if the path is now among the top paths
+	 */
+	public boolean offer(double metric, int[] path, int length) {
+		if (size < capacity) {
+			copyInto(size, metric, path, length);
+			siftUp(size++);
+			return true;
+		}
+		if (!isBetter(metric, path, length, 0)) {
+			return false;
+		}
+		copyInto(0, metric, path, length);
+		siftDown(0);
+		return true;
+	}
+
+	/**
+	 * Offers every path of another heap to this one
+	 * @param other
+	 */
+	public void offerAll(TopPathHeap other) {
+		for (int i = 0; i < other.size; i++) {
+			offer(other.metrics[i], other.paths[i], other.pathLengths[i]);
+		}
+	}
+
+	/**
+	 * Sorts the paths kept from best to worst. This gives up the heap order,
+	 * so nothing should be offered afterwards
+	 */
+	public void sortDescending() {
+		int end = size;
+		while (end > 1) {
+			swap(0, --end);
+			int tail = size;
+			size = end;
+			siftDown(0);
+			size = tail;
+		}
+	}
+
+	public double getMetric(int index) {
+		return metrics[index];
+	}
+
+	public int[] getPath(int index) {
+		return paths[index];
+	}
+
+	public int getPathLength(int index) {
+		return pathLengths[index];
+	}
+
+	private void copyInto(int slot, double metric, int[] path, int length) {
+		if (paths[slot] == null || paths[slot].length < length) {
+			paths[slot] = new int[length];
+		}
+		System.arraycopy(path, 0, paths[slot], 0, length);
+		metrics[slot] = metric;
+		pathLengths[slot] = length;
+	}
+
+	/**
+	 * A path is better than another if it has a higher metric or, on a tie,
+	 * the lower node IDs
+	 */
+	private boolean isBetter(double metric, int[] path, int length, int slot) {
+		if (metric != metrics[slot]) {
+			return metric > metrics[slot];
+		}
+		int[] other = paths[slot];
+		int commonLength = Math.min(length, pathLengths[slot]);
+		for (int i = 0; i < commonLength; i++) {
+			if (path[i] != other[i]) {
+				return path[i] < other[i];
+			}
+		}
+		return length < pathLengths[slot];
+	}
+
+	private boolean isWorse(int slot, int otherSlot) {
+		return isBetter(metrics[otherSlot], paths[otherSlot], pathLengths[otherSlot], slot);
+	}
+
+	private void siftUp(int slot) {
+		while (slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if (!isWorse(slot, parent)) {
+				break;
+			}
+			swap(slot, parent);
+			slot = parent;
+		}
+	}
+
+	private void siftDown(int slot) {
+		while (true) {
+			int worst = slot;
+			int left = 2 * slot + 1, right = left + 1;
+			if (left < size && isWorse(left, worst)) {
+				worst = left;
+			}
+			if (right < size && isWorse(right, worst)) {
+				worst = right;
+			}
+			if (worst == slot) {
+				return;
+			}
+			swap(slot, worst);
+			slot = worst;
+		}
+	}
+
+	private void swap(int i, int j) {
+		double metric = metrics[i];
+		metrics[i] = metrics[j];
+		metrics[j] = metric;
+		int[] path = paths[i];
+		paths[i] = paths[j];
+		paths[j] = path;
+		int length = pathLengths[i];
+		pathLengths[i] = pathLengths[j];
+		pathLengths[j] = length;
+	}
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -23,7 +24,8 @@ import au.com.bytecode.opencsv.CSVReader;
 public class LocHierarchy {
 	public static Logger log = Logger.getLogger(LocHierarchy.class);
 	
-	private static final String INPUT_K2A_FILE = "data/KeywordsToAuthors.csv";
+	private static final String DATA_DIR_STR = "data/";
+	private static final String INPUT_K2A_FILE = "KeywordsToAuthors.csv";
 	
 	private static final String INPUT_KEYWORD_SCORES_FILE = "data/KeywordScores.csv";
 	private static final String OUTPUT_KEYWORD_SCORES_FILE = "data/KeywordAnnotations.csv";
@@ -63,10 +65,37 @@ public class LocHierarchy {
 		return setOfEquidistantHeadings;
 	}
 	
+	public double getMedianUsageCount(){
+		return medianUsageCount;
+	}
+	
+	/**
+	 * Replaces the number of authors of every keyword, and the median 
+	 * usage computed from them
+	 * @param k2aMap
+	 */
+	public void setKeywordUsageCounts(Map<String, Integer> k2aMap){
+		this.k2aMap = k2aMap;
+		computeKeywordUsageStatistics();
+	}
+	
 	public LocHierarchy(){
+		this(DATA_DIR_STR);
+	}
+	
+	/**
+	 * @param dataDirLoc - the directory with the keyword to authors file, ending with a /
+	 */
+	public LocHierarchy(String dataDirLoc){
+		this(transformArrayToHashMap(readCSVFileIntoMatrix(dataDirLoc + INPUT_K2A_FILE)));
+	}
+	
+	/**
+	 * @param k2aMap - the number of authors of every keyword used by more than one author
+	 */
+	public LocHierarchy(Map<String, Integer> k2aMap){
 		log.setLevel(Level.INFO);
-		String[][] k2aArray = readCSVFileIntoMatrix(INPUT_K2A_FILE);
-		k2aMap = transformArrayToHashMap(k2aArray);
+		this.k2aMap = k2aMap;
 		
 		computeKeywordUsageStatistics();
 		
@@ -851,6 +880,10 @@ public class LocHierarchy {
 	 * of the number of authors associated with each keyword
 	 */
 	private void computeKeywordUsageStatistics() {
+		if(k2aMap.isEmpty()){
+			medianUsageCount = 0.0;
+			return;
+		}
 		List<Integer> usageCountList = new ArrayList<Integer>();
 		Integer sumOfUsageCounts = 0;
 		int usageCountListSize;
@@ -883,7 +916,7 @@ public class LocHierarchy {
 	 *            Classifier
 	 * 
 	 * **/
-	private String[][] readCSVFileIntoMatrix(String fileName) {
+	private static String[][] readCSVFileIntoMatrix(String fileName) {
 		CSVReader csvReader = null;
 		String[][] outputMatrix = null;
 		try {
@@ -917,7 +950,7 @@ public class LocHierarchy {
 	 * @return
 	 */
 
-	private Map<String, Integer> transformArrayToHashMap(String[][] array) {
+	private static Map<String, Integer> transformArrayToHashMap(String[][] array) {
 		Map<String, Integer> hashMap = new HashMap<String, Integer>();
 		String key;
 		int valueCount;
@@ -1011,11 +1044,23 @@ public class LocHierarchy {
 		}
 		int pathLength = path.size();
 		
-		metric = ((double)pathLength/(double)logUsageCount);
+		metric = computeKeywordWeight(usageCount, pathLength);
 		log.info("Usage: " + usageCount + "\tLogUsageCount: " + logUsageCount + "\tPathLength: " + pathLength + "\tMetric: " + metric);
 		return metric;
 	}
 
+	/**
+	 * This method computes the metric of a keyword from its usage and the
+	 * length of the path to the root of its heading, as described for 
+	 * calculateWeightForKeyword, without logging it
+	 * @param usageCount
+	 * @param pathLength
+	 * @return
+	 */
+	public double computeKeywordWeight(double usageCount, int pathLength) {
+		double logUsageCount = Math.log(usageCount)/Math.log(medianUsageCount);
+		return (double)pathLength/logUsageCount;
+	}
 	
 	/**
 	 * This method computes the path to the root of a hierarchy
@@ -1058,6 +1103,40 @@ public class LocHierarchy {
 		return pathStr;
 	}
 	
+	/**
+	 * This method computes the path to the root of the hierarchy of the
+	 * given subheading, in the format of the keyword annotations file
+	 * @param heading
+	 * @return the path, for example veterinary:animal-culture:agriculture, 
+	 * or a blank if the subheading is not in any hierarchy
+	 */
+	public String findPathToRoot(String heading) {
+		return pathToString(getPathForHeading(new Heading(heading)));
+	}
+	
+	/**
+	 * This method lists the names of all the headings of all the 
+	 * hierarchies, every root followed by its subheadings, depth first.
+	 * A name that comes up in more than one hierarchy is listed once
+	 * @return
+	 */
+	public List<String> listHeadings() {
+		Set<String> headings = new LinkedHashSet<String>();
+		for(Hierarchy hier : getHierarchyArray()){
+			addHeadings(hier.getRoot(), headings);
+		}
+		return new ArrayList<String>(headings);
+	}
+	
+	private void addHeadings(Heading heading, Set<String> headings) {
+		headings.add(heading.getName());
+		if(heading.getSubheadings() != null){
+			for(Heading subheading : heading.getSubheadings()){
+				addHeadings(subheading, headings);
+			}
+		}
+	}
+	
 	/**
 	 * The method that  elicits user input for each keyword
 	 * @param loch
@@ -1096,6 +1175,74 @@ public class LocHierarchy {
 		List<Heading> pathForHeading1 = getPathForHeading(h1);
 		List<Heading> pathForHeading2 = getPathForHeading(h2);
 		
+		return computeSemanticDistanceBetweenPaths(pathForHeading1, pathForHeading2);
+	}
+
+	/**
+	 * This method computes the semantic distances between every pair of the 
+	 * given subheadings in one go. The path to the root of each subheading is 
+	 * only looked up once, so this is much cheaper than calling 
+	 * computeSemanticDistanceBetweenHeadings for every pair
+	 * @param headings
+	 * @return a matrix where [i][j] is the distance between headings i and j
+	 */
+	public int[][] computeSemanticDistanceMatrix(List<String> headings){
+		int headingCount = headings.size();
+		List<List<Heading>> pathsForHeadings = new ArrayList<List<Heading>>(headingCount);
+		for(String hs : headings){
+			if(hs == null || hs.trim().length() == 0){
+				pathsForHeadings.add(new ArrayList<Heading>());
+			} else {
+				pathsForHeadings.add(getPathForHeading(new Heading(hs)));
+			}
+		}
+		
+		int[][] distances = new int[headingCount][headingCount];
+		for(int i = 0; i < headingCount; i++){
+			for(int j = 0; j < headingCount; j++){
+				distances[i][j] = computeSemanticDistanceBetweenPaths(pathsForHeadings.get(i), pathsForHeadings.get(j));
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * This method finds the hierarchy each of the given subheadings belongs to
+	 * @param headings
+	 * @return the index of the hierarchy in the hierarchy array for every 
+	 * subheading, or -1 if the subheading could not be placed in any hierarchy
+	 */
+	public int[] computeRootIndexes(List<String> headings){
+		int[] rootIndexes = new int[headings.size()];
+		for(int i = 0; i < headings.size(); i++){
+			rootIndexes[i] = -1;
+			String hs = headings.get(i);
+			if(hs == null || hs.trim().length() == 0){
+				continue;
+			}
+			List<Heading> path = getPathForHeading(new Heading(hs));
+			if(path.size() == 0){
+				continue;
+			}
+			Heading root = path.get(path.size() - 1);
+			for(int j = 0; j < hierarchyArray.length; j++){
+				if(hierarchyArray[j].getRoot().equals(root)){
+					rootIndexes[i] = j;
+					break;
+				}
+			}
+		}
+		return rootIndexes;
+	}
+
+	/**
+	 * Computes the semantic distance between two subheadings from their
+	 * paths to the roots of their hierarchies
+	 * @param pathForHeading1
+	 * @param pathForHeading2
+	 * @return
+	 */
+	private int computeSemanticDistanceBetweenPaths(List<Heading> pathForHeading1, List<Heading> pathForHeading2){
 		if(pathForHeading1.size() == 0 || pathForHeading2.size() == 0){
 			return 0;
 		}
@@ -1125,7 +1272,7 @@ public class LocHierarchy {
 		Scanner scanIn = new Scanner(System.in);
 		String commandLineInput;
 		
-		String[][] usefulKeywordsArray = loch.readCSVFileIntoMatrix(INPUT_KEYWORD_SCORES_FILE);
+		String[][] usefulKeywordsArray = readCSVFileIntoMatrix(INPUT_KEYWORD_SCORES_FILE);
 		loch.mapOfUsefulKeywordsToWeights = loch.transformKeywordArrayToHashMap(usefulKeywordsArray);
 		
 		PrintWriter pw = null;